@@ -0,0 +1,185 @@
+/**
+ * Copyright 2019 Pleo Soft d.o.o. (pleosoft.com)
+
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.peltas.benchmarks;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+
+import io.peltas.core.PeltasEntry;
+
+/**
+ * Creates synthetic Alfresco nodes shaped like the entries the workspace reader
+ * builds from the SOLR /metadata response. The generator is seeded, every run
+ * of a benchmark sees the same nodes.
+ */
+public class AlfrescoNodeGenerator {
+
+	public static final String CONTENT_MODEL = "{http://www.alfresco.org/model/content/1.0}";
+	public static final String SYSTEM_MODEL = "{http://www.alfresco.org/model/system/1.0}";
+	public static final String BENCHMARK_MODEL = "{http://www.peltas.io/model/benchmark/1.0}";
+
+	public static final String TRANSACTION = "/alfresco-workspace/transaction/";
+	public static final String PROPERTIES = TRANSACTION + "properties/add";
+	public static final String ASPECTS = TRANSACTION + "aspects/add";
+
+	private static final DateTimeFormatter ISO_DATE = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss.SSSZ",
+			Locale.ENGLISH).withZone(ZoneOffset.UTC);
+	private static final DateTimeFormatter LEGACY_DATE = DateTimeFormatter
+			.ofPattern("EEE MMM dd HH:mm:ss zzz yyyy", Locale.ENGLISH).withZone(ZoneOffset.UTC);
+
+	private static final String[] ASPECT_NAMES = { "cm:titled", "cm:auditable", "cm:author", "cm:versionable",
+			"sys:referenceable", "sys:localized", "cm:ownable", "bench:classified" };
+
+	private final Random random;
+	private final int types;
+	private final int customProperties;
+
+	/**
+	 * @param seed             the random seed
+	 * @param types            number of distinct bench:type&lt;n&gt; node types
+	 * @param customProperties number of bench:prop&lt;n&gt; properties added to
+	 *                         the standard content properties
+	 */
+	public AlfrescoNodeGenerator(long seed, int types, int customProperties) {
+		this.random = new Random(seed);
+		this.types = types;
+		this.customProperties = customProperties;
+	}
+
+	public List<PeltasEntry> entries(int count) {
+		List<PeltasEntry> entries = new ArrayList<>(count);
+		for (int i = 0; i < count; i++) {
+			entries.add(entry());
+		}
+		return entries;
+	}
+
+	public PeltasEntry entry() {
+		long txnId = 1 + random.nextInt(1_000_000);
+		long nodeId = 1 + random.nextInt(10_000_000);
+		String uuid = new UUID(random.nextLong(), random.nextLong()).toString();
+		String nodeRef = "workspace://SpacesStore/" + uuid;
+
+		Map<String, Object> values = new HashMap<>();
+		values.put(PROPERTIES, properties(uuid));
+		values.put(ASPECTS, aspects());
+		values.put(TRANSACTION + "type", "bench:type" + random.nextInt(types));
+		values.put(TRANSACTION + "action", random.nextInt(10) == 0 ? "NODE-DELETED" : "NODE-UPDATED");
+		values.put(TRANSACTION + "path", nodeRef);
+		values.put(TRANSACTION + "nodeRef", nodeRef);
+		values.put(TRANSACTION + "nodeId", uuid);
+
+		PeltasEntry entry = new PeltasEntry();
+		entry.setId(txnId + ";" + nodeId);
+		entry.setApplication("benchmark");
+		entry.setUser("UNKNOWN");
+		entry.setTime(new Timestamp(System.currentTimeMillis()));
+		entry.setValues(values);
+		return entry;
+	}
+
+	public Map<String, Object> properties(String uuid) {
+		Instant created = Instant.ofEpochMilli(1_500_000_000_000L + (long) (random.nextDouble() * 1e11));
+
+		Map<String, Object> properties = new HashMap<>();
+		properties.put(CONTENT_MODEL + "name", "document-" + uuid.substring(0, 8) + ".pdf");
+		properties.put(CONTENT_MODEL + "title", localized("Document " + random.nextInt(1000)));
+		properties.put(CONTENT_MODEL + "description", localized("Synthetic document for benchmarks"));
+		properties.put(CONTENT_MODEL + "creator", "user" + random.nextInt(50));
+		properties.put(CONTENT_MODEL + "modifier", "user" + random.nextInt(50));
+		properties.put(CONTENT_MODEL + "created", ISO_DATE.format(created));
+		properties.put(CONTENT_MODEL + "modified", ISO_DATE.format(created.plusSeconds(random.nextInt(86400))));
+		properties.put(CONTENT_MODEL + "content", content());
+		properties.put(SYSTEM_MODEL + "store-protocol", "workspace");
+		properties.put(SYSTEM_MODEL + "store-identifier", "SpacesStore");
+		properties.put(SYSTEM_MODEL + "node-uuid", uuid);
+		properties.put(SYSTEM_MODEL + "node-dbid", random.nextInt(10_000_000));
+		properties.put(SYSTEM_MODEL + "locale", "en_US_");
+		for (int i = 0; i < customProperties; i++) {
+			properties.put(BENCHMARK_MODEL + "prop" + i, "value-" + random.nextInt(10_000));
+		}
+		return properties;
+	}
+
+	/**
+	 * @return the properties in the toString() form the alfresco-access audit
+	 *         application records them
+	 */
+	public String propertiesString() {
+		String uuid = new UUID(random.nextLong(), random.nextLong()).toString();
+		Instant created = Instant.ofEpochMilli(1_500_000_000_000L + (long) (random.nextDouble() * 1e11));
+
+		StringBuilder builder = new StringBuilder("{");
+		builder.append(CONTENT_MODEL).append("name=document-").append(uuid, 0, 8).append(".pdf, ");
+		builder.append(CONTENT_MODEL).append("title=[{locale=en_US_, value=Document ").append(random.nextInt(1000))
+				.append("}], ");
+		builder.append(CONTENT_MODEL).append("creator=user").append(random.nextInt(50)).append(", ");
+		builder.append(CONTENT_MODEL).append("created=").append(LEGACY_DATE.format(created)).append(", ");
+		builder.append(CONTENT_MODEL).append(
+				"content=contentUrl=store://2015/5/7/17/19/1282d227.bin|mimetype=application/pdf|size=51846|encoding=UTF-8|locale=en_US_|id=")
+				.append(random.nextInt(10_000)).append(", ");
+		builder.append(SYSTEM_MODEL).append("store-protocol=workspace, ");
+		builder.append(SYSTEM_MODEL).append("store-identifier=SpacesStore, ");
+		builder.append(SYSTEM_MODEL).append("node-uuid=").append(uuid).append(", ");
+		builder.append(BENCHMARK_MODEL).append("references=[").append(random.nextInt(1000)).append(", ")
+				.append(random.nextInt(1000)).append(", ").append(random.nextInt(1000)).append("]");
+		for (int i = 0; i < customProperties; i++) {
+			builder.append(", ").append(BENCHMARK_MODEL).append("prop").append(i).append("=value-")
+					.append(random.nextInt(10_000));
+		}
+		return builder.append("}").toString();
+	}
+
+	private List<Map<String, String>> aspects() {
+		int count = 2 + random.nextInt(ASPECT_NAMES.length - 2);
+		List<Map<String, String>> aspects = new ArrayList<>(count);
+		for (int i = 0; i < count; i++) {
+			String[] split = ASPECT_NAMES[i].split(":", 2);
+			Map<String, String> aspect = new HashMap<>();
+			aspect.put("prefixString", split[0]);
+			aspect.put("localName", split[1]);
+			aspects.add(aspect);
+		}
+		return aspects;
+	}
+
+	private Map<String, Object> localized(String value) {
+		Map<String, Object> localized = new HashMap<>();
+		localized.put("en", value);
+		localized.put("de", value + " (de)");
+		return localized;
+	}
+
+	private Map<String, Object> content() {
+		Map<String, Object> content = new HashMap<>();
+		content.put("contentId", random.nextInt(100_000));
+		content.put("mimetype", "application/pdf");
+		content.put("size", random.nextInt(10_000_000));
+		content.put("encoding", "UTF-8");
+		content.put("locale", "en_US_");
+		return content;
+	}
+}
@@ -0,0 +1,109 @@
+/**
+ * Copyright 2019 Pleo Soft d.o.o. (pleosoft.com)
+
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.peltas.benchmarks;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.core.convert.converter.Converter;
+
+import io.peltas.boot.DefaultConvertersConfiguration;
+import io.peltas.core.PeltasEntry;
+import io.peltas.core.converter.PeltasConverter;
+
+/**
+ * Every converter of {@link DefaultConvertersConfiguration}, each with the
+ * format {@link io.peltas.core.integration.PeltasEntryHandler} would pass.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ConvertersBenchmark {
+
+	private static final List<String> ASPECT_FORMAT_KEYS = Arrays.asList("prefixString", "localName");
+
+	private Converter<Object, Object> mapToPrefixedMap;
+	private PeltasConverter<Object, Object> stringToDate;
+	private PeltasConverter<Object, Object> dateToString;
+	private Converter<Object, Object> mapToCollection;
+	private PeltasConverter<Object, Object> mapToFormattedKeyMap;
+
+	private HashMap<String, Object> properties;
+	private Collection<?> aspects;
+	private String created;
+	private Date date;
+
+	@SuppressWarnings("unchecked")
+	@Setup
+	public void setUp() {
+		List<Converter<?, ?>> converters = PeltasBenchmarkFixtures.converters();
+		mapToPrefixedMap = (Converter<Object, Object>) converters.get(0);
+		stringToDate = (PeltasConverter<Object, Object>) converters.get(1);
+		dateToString = (PeltasConverter<Object, Object>) converters.get(2);
+		mapToCollection = (Converter<Object, Object>) converters.get(3);
+		mapToFormattedKeyMap = (PeltasConverter<Object, Object>) converters.get(4);
+
+		PeltasEntry entry = new AlfrescoNodeGenerator(42, 10, 20).entry();
+		properties = new HashMap<>((Map<String, Object>) entry.getValues().get(AlfrescoNodeGenerator.PROPERTIES));
+		aspects = (Collection<?>) entry.getValues().get(AlfrescoNodeGenerator.ASPECTS);
+		created = (String) properties.get(AlfrescoNodeGenerator.CONTENT_MODEL + "created");
+		date = new Date(1_500_000_000_000L);
+	}
+
+	@Benchmark
+	public Object mapToPrefixedMap() {
+		return mapToPrefixedMap.convert(properties);
+	}
+
+	@Benchmark
+	public Object stringToDate() {
+		return stringToDate.convert(created, null, null);
+	}
+
+	@Benchmark
+	public Object dateToString() {
+		return dateToString.convert(date, "yyyyMMdd", null);
+	}
+
+	@Benchmark
+	public Object mapToCollection() {
+		return mapToCollection.convert(properties);
+	}
+
+	@Benchmark
+	public Object mapToFormattedKeyMap() {
+		return mapToFormattedKeyMap.convert(aspects, "%s:%s", ASPECT_FORMAT_KEYS);
+	}
+}
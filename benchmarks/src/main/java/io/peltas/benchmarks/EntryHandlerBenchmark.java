@@ -0,0 +1,74 @@
+/**
+ * Copyright 2019 Pleo Soft d.o.o. (pleosoft.com)
+
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.peltas.benchmarks;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.peltas.core.PeltasEntry;
+import io.peltas.core.batch.PeltasDataHolder;
+import io.peltas.core.expression.PeltasHandlerProperties;
+import io.peltas.core.integration.PeltasEntryHandler;
+import io.peltas.core.integration.PeltasFormatUtil;
+
+/**
+ * {@link PeltasEntryHandler#handle} mapping synthetic nodes with
+ * {@link PeltasBenchmarkFixtures#nodeHandler()}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EntryHandlerBenchmark {
+
+	private static final int ENTRIES = 1024;
+
+	@Param({ "10", "100" })
+	public int customProperties;
+
+	private PeltasEntryHandler handler;
+	private PeltasHandlerProperties config;
+	private List<PeltasEntry> entries;
+	private int next;
+
+	@Setup
+	public void setUp() {
+		handler = new PeltasEntryHandler(PeltasBenchmarkFixtures.converters(), new PeltasFormatUtil());
+		config = PeltasBenchmarkFixtures.nodeHandler();
+		entries = new AlfrescoNodeGenerator(42, 10, customProperties).entries(ENTRIES);
+	}
+
+	@Benchmark
+	public PeltasDataHolder handle() {
+		PeltasEntry entry = entries.get(next++ & (ENTRIES - 1));
+		return handler.handle(entry, config);
+	}
+}
@@ -0,0 +1,69 @@
+/**
+ * Copyright 2019 Pleo Soft d.o.o. (pleosoft.com)
+
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.peltas.benchmarks;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.peltas.boot.PeltasHandlerConfigurationProperties;
+import io.peltas.core.PeltasEntry;
+
+/**
+ * {@link PeltasHandlerConfigurationProperties#findFirstBestMatchHandler} with a
+ * growing number of configured handlers.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HandlerMatchBenchmark {
+
+	private static final int ENTRIES = 1024;
+
+	@Param({ "10", "100", "500" })
+	public int handlers;
+
+	private PeltasHandlerConfigurationProperties configuration;
+	private List<PeltasEntry> entries;
+	private int next;
+
+	@Setup
+	public void setUp() {
+		configuration = PeltasBenchmarkFixtures.handlerConfiguration(handlers);
+		entries = new AlfrescoNodeGenerator(42, handlers, 10).entries(ENTRIES);
+	}
+
+	@Benchmark
+	public String findFirstBestMatchHandler() {
+		PeltasEntry entry = entries.get(next++ & (ENTRIES - 1));
+		return configuration.findFirstBestMatchHandler(entry);
+	}
+}
@@ -0,0 +1,134 @@
+/**
+ * Copyright 2019 Pleo Soft d.o.o. (pleosoft.com)
+
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.peltas.benchmarks;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.springframework.jdbc.datasource.init.ScriptUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import io.peltas.core.PeltasEntry;
+import io.peltas.core.batch.PeltasDataHolder;
+import io.peltas.core.expression.PeltasHandlerProperties;
+import io.peltas.core.integration.PeltasEntryHandler;
+import io.peltas.core.integration.PeltasFormatUtil;
+import io.peltas.core.repository.jdbc.PeltasJdbcWriter;
+
+/**
+ * {@link PeltasJdbcWriter#write} of a whole chunk into an embedded H2
+ * database, inside a transaction like a chunk of the Peltas step, with and
+ * without batch mode.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JdbcWriterBenchmark {
+
+	@Param({ "false", "true" })
+	public boolean batch;
+
+	@Param({ "100" })
+	public int chunkSize;
+
+	private SingleConnectionDataSource dataSource;
+	private TransactionTemplate transactionTemplate;
+	private PeltasJdbcWriter writer;
+	private List<PeltasDataHolder> chunk;
+
+	@Setup
+	public void setUp() throws Exception {
+		dataSource = new SingleConnectionDataSource("jdbc:h2:mem:peltas-benchmark;DB_CLOSE_DELAY=-1", "sa", "",
+				true);
+		dataSource.setAutoCommit(false);
+		ScriptUtils.executeSqlScript(dataSource.getConnection(),
+				new ClassPathResource("io/peltas/benchmarks/schema.sql"));
+
+		transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+		writer = new PeltasJdbcWriter(new NamedParameterJdbcTemplate(dataSource), executions(),
+				batch, Collections.emptySet());
+
+		PeltasEntryHandler handler = new PeltasEntryHandler(PeltasBenchmarkFixtures.converters(),
+				new PeltasFormatUtil());
+		PeltasHandlerProperties config = PeltasBenchmarkFixtures.nodeHandler();
+
+		chunk = new ArrayList<>(chunkSize);
+		for (PeltasEntry entry : new AlfrescoNodeGenerator(42, 10, 10).entries(chunkSize)) {
+			chunk.add(handler.handle(entry, config));
+		}
+	}
+
+	private Resource[] executions() throws IOException {
+		String mode = batch ? "batch" : "single";
+		return new PathMatchingResourcePatternResolver()
+				.getResources("classpath:io/peltas/benchmarks/executions/" + mode + "/*.sql");
+	}
+
+	@Setup(Level.Iteration)
+	public void truncate() {
+		JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+		transactionTemplate.execute(status -> {
+			jdbcTemplate.execute("TRUNCATE TABLE PELTAS_NODE_ASPECT");
+			jdbcTemplate.execute("TRUNCATE TABLE PELTAS_NODE");
+			return null;
+		});
+	}
+
+	@TearDown
+	public void tearDown() {
+		new JdbcTemplate(dataSource).execute("DROP ALL OBJECTS");
+		dataSource.destroy();
+	}
+
+	@Benchmark
+	public void write() {
+		transactionTemplate.execute(status -> {
+			try {
+				writer.write(chunk);
+			} catch (Exception e) {
+				throw new IllegalStateException(e);
+			}
+			return null;
+		});
+	}
+}
@@ -0,0 +1,163 @@
+/**
+ * Copyright 2019 Pleo Soft d.o.o. (pleosoft.com)
+
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.peltas.benchmarks;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.core.convert.converter.Converter;
+
+import io.peltas.boot.AlfrescoModelConfigurationProperties;
+import io.peltas.boot.DefaultConvertersConfiguration;
+import io.peltas.boot.PeltasHandlerConfigurationProperties;
+import io.peltas.core.converter.PeltasDateFormats;
+import io.peltas.core.converter.PrefixStringHashMap;
+import io.peltas.core.expression.ContainsExpressionEvaluator;
+import io.peltas.core.expression.ContainsNotExpressionEvaluator;
+import io.peltas.core.expression.EqualsExpressionEvaluator;
+import io.peltas.core.expression.EvaluatorExpressionRegistry;
+import io.peltas.core.expression.PeltasExpressionProperty;
+import io.peltas.core.expression.PeltasExpressionPropertyMapper;
+import io.peltas.core.expression.PeltasHandlerProperties;
+import io.peltas.core.expression.Pipeline;
+import io.peltas.core.expression.PipelineCollection;
+
+/**
+ * Builds the Peltas components the benchmarks run against the way the Spring
+ * configuration does, without starting an application context.
+ */
+public final class PeltasBenchmarkFixtures {
+
+	public static final String NODE_EXECUTION = "peltas_node";
+	public static final String ASPECT_EXECUTION = "peltas_node_aspect";
+
+	private PeltasBenchmarkFixtures() {
+	}
+
+	public static EvaluatorExpressionRegistry evaluatorExpressionRegistry() {
+		EqualsExpressionEvaluator equalsExpressionEvaluator = new EqualsExpressionEvaluator();
+
+		EvaluatorExpressionRegistry registry = new EvaluatorExpressionRegistry(equalsExpressionEvaluator);
+		registry.registerEvaluator(new ContainsExpressionEvaluator());
+		registry.registerEvaluator(new ContainsNotExpressionEvaluator());
+		return registry;
+	}
+
+	/**
+	 * One handler per bench:type&lt;n&gt; node type, matching the types of an
+	 * {@link AlfrescoNodeGenerator} created with the same count.
+	 */
+	public static PeltasHandlerConfigurationProperties handlerConfiguration(int handlers) {
+		Map<String, PeltasHandlerProperties> handler = new HashMap<>();
+		for (int i = 0; i < handlers; i++) {
+			PeltasHandlerProperties properties = nodeHandler();
+			properties.setEvaluator(AlfrescoNodeGenerator.TRANSACTION + "type=bench:type" + i + "|"
+					+ AlfrescoNodeGenerator.TRANSACTION + "action=NODE-UPDATED");
+			handler.put("type" + i, properties);
+		}
+
+		PeltasHandlerConfigurationProperties configuration = new PeltasHandlerConfigurationProperties(
+				evaluatorExpressionRegistry());
+		configuration.setHandler(handler);
+		return configuration;
+	}
+
+	/**
+	 * A handler mapping what a typical node handler maps: plain values, dates,
+	 * formatted values, a prop: reference, a prefixed property map and the
+	 * aspects collection.
+	 */
+	public static PeltasHandlerProperties nodeHandler() {
+		String properties = AlfrescoNodeGenerator.PROPERTIES + "@";
+
+		Map<String, PeltasExpressionProperty> property = new HashMap<>();
+		property.put("action", property(null, null, AlfrescoNodeGenerator.TRANSACTION + "action"));
+		property.put("type", property(null, null, AlfrescoNodeGenerator.TRANSACTION + "type"));
+		property.put("nodeRef", property(null, null, AlfrescoNodeGenerator.TRANSACTION + "nodeRef"));
+		property.put("name", property(null, null, properties + AlfrescoNodeGenerator.CONTENT_MODEL + "name"));
+		property.put("creator", property(null, null, properties + AlfrescoNodeGenerator.CONTENT_MODEL + "creator"));
+		property.put("created", property(Date.class, null, properties + AlfrescoNodeGenerator.CONTENT_MODEL + "created"));
+		property.put("createdDay", property(String.class, "yyyyMMdd", "prop:created"));
+		property.put("storeRef", property(String.class, "%s://%s/%s",
+				properties + AlfrescoNodeGenerator.SYSTEM_MODEL + "store-protocol",
+				properties + AlfrescoNodeGenerator.SYSTEM_MODEL + "store-identifier",
+				properties + AlfrescoNodeGenerator.SYSTEM_MODEL + "node-uuid"));
+		property.put("title", property(PrefixStringHashMap.class, null,
+				properties + AlfrescoNodeGenerator.CONTENT_MODEL + "title"));
+		property.put("properties", property(PrefixStringHashMap.class, null, AlfrescoNodeGenerator.PROPERTIES));
+
+		PeltasExpressionProperty aspects = property(Collection.class, "%s:%s", AlfrescoNodeGenerator.ASPECTS);
+		aspects.setFormatKeys(Arrays.asList("prefixString", "localName"));
+		property.put("aspects", aspects);
+
+		PeltasExpressionPropertyMapper mapper = new PeltasExpressionPropertyMapper();
+		mapper.setProperty(property);
+
+		PipelineCollection aspectCollection = new PipelineCollection();
+		aspectCollection.setExecutions(Collections.singletonList(ASPECT_EXECUTION));
+
+		Pipeline pipeline = new Pipeline();
+		pipeline.setExecutions(Collections.singletonList(NODE_EXECUTION));
+		pipeline.setCollections(Collections.singletonMap("aspects", aspectCollection));
+
+		PeltasHandlerProperties handler = new PeltasHandlerProperties();
+		handler.setHandlerName("node");
+		handler.setMapper(mapper);
+		handler.setPipeline(pipeline);
+		return handler;
+	}
+
+	private static PeltasExpressionProperty property(Class<?> type, String format, String... data) {
+		PeltasExpressionProperty property = new PeltasExpressionProperty();
+		property.setData(Arrays.asList(data));
+		if (type != null) {
+			property.setType(type);
+		}
+		property.setFormat(format);
+		return property;
+	}
+
+	public static AlfrescoModelConfigurationProperties alfrescoModel() {
+		Map<String, String> prefix = new HashMap<>();
+		prefix.put("cm", "http://www.alfresco.org/model/content/1.0");
+		prefix.put("sys", "http://www.alfresco.org/model/system/1.0");
+		prefix.put("bench", "http://www.peltas.io/model/benchmark/1.0");
+
+		AlfrescoModelConfigurationProperties model = new AlfrescoModelConfigurationProperties();
+		model.setPrefix(prefix);
+		return model;
+	}
+
+	/**
+	 * The converters of {@link DefaultConvertersConfiguration}, in declaration
+	 * order.
+	 */
+	public static List<Converter<?, ?>> converters() {
+		DefaultConvertersConfiguration configuration = new DefaultConvertersConfiguration();
+		PeltasDateFormats peltasDateFormats = configuration.peltasDateFormats();
+
+		return Arrays.asList(configuration.mapToPrefixedMapConverter(alfrescoModel()),
+				configuration.stringToDateConverter(peltasDateFormats),
+				configuration.dateToStringConverter(peltasDateFormats), configuration.mapToCollectionConverter(),
+				configuration.mapToFormattedKeyMapConverter());
+	}
+}
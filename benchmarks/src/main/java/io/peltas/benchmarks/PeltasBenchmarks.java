@@ -0,0 +1,64 @@
+/**
+ * Copyright 2019 Pleo Soft d.o.o. (pleosoft.com)
+
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.peltas.benchmarks;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the benchmarks with the usual JMH command line options and writes the
+ * results as JSON to target/jmh-result.json unless -rf/-rff say otherwise, so
+ * two runs can be compared with any JMH result viewer:
+ *
+ * <pre>
+ * mvn -f benchmarks/pom.xml package
+ * java -jar benchmarks/target/benchmarks.jar [regexp] [jmh options]
+ * </pre>
+ */
+public final class PeltasBenchmarks {
+
+	public static final String DEFAULT_RESULT = "target/jmh-result.json";
+
+	private PeltasBenchmarks() {
+	}
+
+	public static void main(String[] args) throws Exception {
+		CommandLineOptions commandLine = new CommandLineOptions(args);
+		if (commandLine.shouldHelp()) {
+			commandLine.showHelp();
+			return;
+		}
+
+		ChainedOptionsBuilder options = new OptionsBuilder().parent(commandLine);
+		if (!commandLine.getResultFormat().hasValue()) {
+			options.resultFormat(ResultFormatType.JSON);
+		}
+		if (!commandLine.getResult().hasValue()) {
+			options.result(DEFAULT_RESULT);
+		}
+
+		Runner runner = new Runner(options.build());
+		if (commandLine.shouldList()) {
+			runner.list();
+			return;
+		}
+		runner.run();
+	}
+}
@@ -0,0 +1,69 @@
+/**
+ * Copyright 2019 Pleo Soft d.o.o. (pleosoft.com)
+
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.peltas.benchmarks;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.peltas.core.StringToMapUtil;
+
+/**
+ * {@link StringToMapUtil#stringToMap} on property strings in the
+ * alfresco-access audit format.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StringToMapBenchmark {
+
+	private static final int INPUTS = 256;
+
+	@Param({ "0", "50" })
+	public int customProperties;
+
+	private List<String> inputs;
+	private int next;
+
+	@Setup
+	public void setUp() {
+		AlfrescoNodeGenerator generator = new AlfrescoNodeGenerator(42, 10, customProperties);
+		inputs = Stream.generate(generator::propertiesString).limit(INPUTS).collect(Collectors.toList());
+	}
+
+	@Benchmark
+	public Map<String, Object> stringToMap() {
+		return StringToMapUtil.stringToMap(inputs.get(next++ & (INPUTS - 1)), ',');
+	}
+}
@@ -0,0 +1 @@
+SELECT ID FROM FINAL TABLE (INSERT INTO PELTAS_NODE (NODE_REF, NODE_TYPE, ACTION, NAME, CREATED, CREATED_DAY, AUDIT_ID) VALUES (:nodeRef, :type, :action, :name, :created, :createdDay, :audit.id))
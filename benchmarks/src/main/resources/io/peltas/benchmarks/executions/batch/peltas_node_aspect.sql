@@ -0,0 +1 @@
+INSERT INTO PELTAS_NODE_ASPECT (NODE_ID, ASPECT) VALUES (:peltas_node.ID, :aspects)
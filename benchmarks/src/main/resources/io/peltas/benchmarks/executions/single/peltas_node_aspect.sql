@@ -0,0 +1 @@
+SELECT ID FROM FINAL TABLE (INSERT INTO PELTAS_NODE_ASPECT (NODE_ID, ASPECT) VALUES (:peltas_node.ID, :aspects))
@@ -0,0 +1,16 @@
+CREATE TABLE PELTAS_NODE (
+	ID BIGINT AUTO_INCREMENT PRIMARY KEY,
+	NODE_REF VARCHAR(255),
+	NODE_TYPE VARCHAR(255),
+	ACTION VARCHAR(64),
+	NAME VARCHAR(255),
+	CREATED TIMESTAMP,
+	CREATED_DAY VARCHAR(8),
+	AUDIT_ID VARCHAR(64)
+);
+
+CREATE TABLE PELTAS_NODE_ASPECT (
+	ID BIGINT AUTO_INCREMENT PRIMARY KEY,
+	NODE_ID BIGINT,
+	ASPECT VARCHAR(255)
+);
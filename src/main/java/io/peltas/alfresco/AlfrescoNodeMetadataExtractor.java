@@ -0,0 +1,73 @@
+/**
+ * Copyright 2019 Pleo Soft d.o.o. (pleosoft.com)
+
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.peltas.alfresco;
+
+import java.io.IOException;
+import java.util.function.Consumer;
+
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.web.client.ResponseExtractor;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Binds the nodes of a SOLR /metadata response one at a time and hands them to
+ * the consumer, without building an {@link AlfrescoNodeMetadataList}. What the
+ * consumer keeps is up to it, the reader still collects a whole window.
+ */
+public class AlfrescoNodeMetadataExtractor implements ResponseExtractor<Integer> {
+
+	private static final String NODES_FIELD = "nodes";
+
+	private final ObjectMapper objectMapper;
+	private final Consumer<AlfrescoNodeMetadata> consumer;
+
+	public AlfrescoNodeMetadataExtractor(ObjectMapper objectMapper, Consumer<AlfrescoNodeMetadata> consumer) {
+		this.objectMapper = objectMapper;
+		this.consumer = consumer;
+	}
+
+	/**
+	 * @return the number of nodes handed to the consumer
+	 */
+	@Override
+	public Integer extractData(ClientHttpResponse response) throws IOException {
+		int count = 0;
+		try (JsonParser parser = objectMapper.getFactory().createParser(response.getBody())) {
+			if (parser.nextToken() != JsonToken.START_OBJECT) {
+				return count;
+			}
+
+			while (parser.nextToken() == JsonToken.FIELD_NAME) {
+				String fieldName = parser.getCurrentName();
+				JsonToken value = parser.nextToken();
+				if (!NODES_FIELD.equals(fieldName) || value != JsonToken.START_ARRAY) {
+					parser.skipChildren();
+					continue;
+				}
+
+				while (parser.nextToken() == JsonToken.START_OBJECT) {
+					consumer.accept(objectMapper.readValue(parser, AlfrescoNodeMetadata.class));
+					count++;
+				}
+			}
+		}
+		return count;
+	}
+}
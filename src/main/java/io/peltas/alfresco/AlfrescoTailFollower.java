@@ -0,0 +1,88 @@
+/**
+ * Copyright 2019 Pleo Soft d.o.o. (pleosoft.com)
+
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.peltas.alfresco;
+
+import java.util.function.LongSupplier;
+
+import org.springframework.util.Assert;
+
+/**
+ * Keeps the state of a reader that has caught up with the head of the
+ * transaction log: the last known max transaction id, valid for a limited
+ * time, and an idle period that doubles every time the reader finds nothing
+ * new.
+ */
+public class AlfrescoTailFollower {
+
+	private final long maxTxnIdTtl;
+	private final long minBackoff;
+	private final long maxBackoff;
+	private final LongSupplier clock;
+
+	private Long maxTxnId;
+	private long maxTxnIdExpiresAt;
+	private long backoff;
+	private long idleUntil;
+
+	public AlfrescoTailFollower(long maxTxnIdTtl, long minBackoff, long maxBackoff) {
+		this(maxTxnIdTtl, minBackoff, maxBackoff, System::currentTimeMillis);
+	}
+
+	public AlfrescoTailFollower(long maxTxnIdTtl, long minBackoff, long maxBackoff, LongSupplier clock) {
+		Assert.isTrue(maxTxnIdTtl >= 0, "the max transaction id ttl cannot be negative");
+		Assert.isTrue(minBackoff >= 0, "the minimum backoff cannot be negative");
+		Assert.isTrue(maxBackoff >= minBackoff, "the maximum backoff cannot be lower than the minimum");
+
+		this.maxTxnIdTtl = maxTxnIdTtl;
+		this.minBackoff = minBackoff;
+		this.maxBackoff = maxBackoff;
+		this.clock = clock;
+	}
+
+	/**
+	 * @return the cached max transaction id, null once it has expired
+	 */
+	public Long getMaxTxnId() {
+		return clock.getAsLong() < maxTxnIdExpiresAt ? maxTxnId : null;
+	}
+
+	public void setMaxTxnId(Long maxTxnId) {
+		this.maxTxnId = maxTxnId;
+		this.maxTxnIdExpiresAt = maxTxnId != null ? clock.getAsLong() + maxTxnIdTtl : 0;
+	}
+
+	/**
+	 * @return true while the reader should not ask the repository for new nodes
+	 */
+	public boolean isIdle() {
+		return clock.getAsLong() < idleUntil;
+	}
+
+	public void onCaughtUp() {
+		backoff = backoff == 0 ? minBackoff : Math.min(maxBackoff, backoff * 2);
+		idleUntil = clock.getAsLong() + backoff;
+	}
+
+	public void onProgress() {
+		backoff = 0;
+		idleUntil = 0;
+	}
+
+	public long getBackoff() {
+		return backoff;
+	}
+}
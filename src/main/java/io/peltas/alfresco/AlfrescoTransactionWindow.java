@@ -0,0 +1,78 @@
+/**
+ * Copyright 2019 Pleo Soft d.o.o. (pleosoft.com)
+
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.peltas.alfresco;
+
+import org.springframework.util.Assert;
+
+/**
+ * Controls how many transactions are requested from the SOLR /nodes endpoint
+ * at once. The window grows while the responses are sparse and shrinks as soon
+ * as a window yields more nodes than the configured target.
+ */
+public class AlfrescoTransactionWindow {
+
+	private final long min;
+	private final long max;
+	private final long targetNodes;
+
+	// read by the step thread and the metrics while a reader thread resizes it
+	private volatile long size;
+
+	public AlfrescoTransactionWindow(long min, long max, long targetNodes) {
+		Assert.isTrue(min > 0, "the minimum window size must be greater than 0");
+		Assert.isTrue(max >= min, "the maximum window size cannot be lower than the minimum");
+		Assert.isTrue(targetNodes > 0, "the window target nodes must be greater than 0");
+
+		this.min = min;
+		this.max = max;
+		this.targetNodes = targetNodes;
+		this.size = min;
+	}
+
+	public long getSize() {
+		return size;
+	}
+
+	public void setSize(long size) {
+		this.size = Math.min(max, Math.max(min, size));
+	}
+
+	/**
+	 * @param nodesCount the number of nodes the last requested window returned
+	 */
+	public void onWindowFetched(int nodesCount) {
+		if (nodesCount > targetNodes) {
+			// dense range: shrink proportionally so the next window lands near the target
+			setSize(size * targetNodes / nodesCount);
+		} else if (nodesCount < targetNodes / 2) {
+			// sparse range: grow carefully, a dense range will shrink it again
+			setSize(size * 2);
+		}
+	}
+
+	public long getMin() {
+		return min;
+	}
+
+	public long getMax() {
+		return max;
+	}
+
+	public long getTargetNodes() {
+		return targetNodes;
+	}
+}
@@ -24,6 +24,13 @@ import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
 
 import org.slf4j.Logger;
@@ -37,14 +44,23 @@ import org.springframework.beans.factory.InitializingBean;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.util.Assert;
 import org.springframework.util.LinkedMultiValueMap;
 import org.springframework.web.client.RestClientException;
 import org.springframework.web.client.RestTemplate;
 import org.springframework.web.util.UriComponentsBuilder;
 
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
 import io.peltas.boot.PeltasProperties;
 import io.peltas.core.PeltasEntry;
+import io.peltas.core.PeltasException;
 import io.peltas.core.batch.AbstractPeltasRestReader;
+import io.peltas.core.metrics.PeltasMetrics;
+import io.peltas.core.repository.PeltasCheckpoint;
 import io.peltas.core.repository.TxDataRepository;
 import io.peltas.core.repository.jpa.PeltasTimestamp;
 
@@ -55,52 +71,127 @@ public class AlfrescoWorkspaceRestReader extends AbstractPeltasRestReader<Alfres
 
 	public static final String AUDIT_ID_SEPARATOR = "___";
 
+	private static final long PREFETCH_POLL_SECONDS = 1;
+
+	private static final Comparator<AlfrescoNodeMetadata> METADATA_ORDER = Comparator
+			.comparing(AlfrescoNodeMetadata::getTxnId, Comparator.nullsLast(Comparator.naturalOrder()))
+			.thenComparing(AlfrescoNodeMetadata::getId, Comparator.nullsLast(Comparator.naturalOrder()));
+
 	private final TxDataRepository auditRepository;
 	private final PeltasProperties auditProperties;
+
+	// in prefetch mode the transaction window below is owned by the prefetch thread
+	// between startPrefetch() and the end of stopPrefetch(), the step thread only
+	// sees the window size handed over with every prefetched window
 	private final AtomicLong txId = new AtomicLong(0);
+	private final AlfrescoTransactionWindow window;
+	private final long firstTxId;
+	private final Long lastTxId;
 	private Long skipToNodeId = null;
 	private Long skipToTxId = null;
 	private boolean retry = true;
 	private PeltasTimestamp auditTimeStamp;
-	private Long fromTxId;
-	private Long toTxId;
+	private volatile PeltasCheckpoint checkpoint;
+	private volatile Long fromTxId;
+	private volatile Long toTxId;
 
 	private Long lastFromTxId;
-	private Long currentMaxTxId;
+	private volatile Long currentMaxTxId;
+
+	private final int prefetch;
+	private final boolean streaming;
+	private final int metadataBatchSize;
+	private final int metadataParallelism;
+	private ExecutorService metadataExecutor;
+	private final AlfrescoTailFollower tailFollower;
+	private ObjectMapper objectMapper;
+	private BlockingQueue<PrefetchedWindow> prefetchedWindows;
+	private ExecutorService prefetchExecutor;
+	private Future<?> prefetchTask;
+	private boolean prefetchDrained;
+	private Throwable prefetchFailure;
+	private long prefetchedWindowSize;
+	private PeltasMetrics metrics = PeltasMetrics.NOOP;
 
 	public AlfrescoWorkspaceRestReader(final RestTemplate restTemplate, final PeltasProperties properties,
 			TxDataRepository auditRepository, String applicationName) {
+		this(restTemplate, properties, auditRepository, applicationName, 1L, null);
+	}
+
+	/**
+	 * @param firstTxId the first transaction read when there is no checkpoint yet
+	 * @param lastTxId  the last transaction read, null to follow the repository
+	 */
+	public AlfrescoWorkspaceRestReader(final RestTemplate restTemplate, final PeltasProperties properties,
+			TxDataRepository auditRepository, String applicationName, long firstTxId, Long lastTxId) {
 		super(applicationName, restTemplate);
+		Assert.isTrue(firstTxId > 0, "the first transaction must be greater than 0");
+		Assert.isTrue(lastTxId == null || lastTxId >= firstTxId, "the last transaction cannot precede the first");
+
 		this.auditProperties = properties;
 		this.auditRepository = auditRepository;
+		this.firstTxId = firstTxId;
+		this.lastTxId = lastTxId;
+
+		PeltasProperties.Window windowProperties = properties.getWindow();
+		this.window = new AlfrescoTransactionWindow(windowProperties.getMin(), windowProperties.getMax(),
+				(long) properties.getChunksize() * windowProperties.getTargetChunks());
+
+		PeltasProperties.Reader readerProperties = properties.getReader();
+		this.prefetch = readerProperties.getPrefetch();
+		this.streaming = readerProperties.getStreaming();
+		this.metadataBatchSize = readerProperties.getMetadataBatchSize();
+		this.metadataParallelism = readerProperties.getMetadataParallelism();
+		this.tailFollower = readerProperties.getTailFollow()
+				? new AlfrescoTailFollower(readerProperties.getMaxTxnIdTtl(), readerProperties.getIdleBackoffMin(),
+						readerProperties.getIdleBackoffMax())
+				: null;
 	}
 
 	@Override
 	public void afterPropertiesSet() throws Exception {
 		auditTimeStamp = auditRepository.readTx(getCurrentApplicationName());
-		if (auditTimeStamp != null) {
-			String ref = auditTimeStamp.getRef();
-			String[] split = ref.split(AUDIT_ID_SEPARATOR);
-			String[] tx = split[0].split(";");
-			Long currentTxId = Long.valueOf(tx[0]);
-			txId.set(currentTxId - 1);
+		resetToCheckpoint(auditTimeStamp);
 
-			skipToTxId = currentTxId;
-			skipToNodeId = Long.valueOf(tx[1]);
-		}
-		fromTxId = txId.incrementAndGet();
-		toTxId = txId.addAndGet(5);
-		
 		currentMaxTxId = getCurrentMaxTxnId();
 	}
 
+	private void resetToCheckpoint(PeltasTimestamp timestamp) {
+		txId.set(firstTxId - 1);
+		skipToTxId = null;
+		skipToNodeId = null;
+
+		checkpoint = PeltasCheckpoint.of(timestamp);
+		if (checkpoint != null) {
+			if (checkpoint.getLastTxnId() != null) {
+				txId.set(checkpoint.getLastTxnId() - 1);
+
+				skipToTxId = checkpoint.getLastTxnId();
+				skipToNodeId = checkpoint.getLastNodeId();
+			}
+			if (checkpoint.getWindowSize() != null) {
+				window.setSize(checkpoint.getWindowSize());
+			}
+		}
+		nextWindow();
+	}
+
 	@Override
 	protected void doOpen() throws Exception {
-		onOpen();
+		if (isPrefetching()) {
+			startPrefetch();
+		} else {
+			onOpen();
+		}
 	}
 
 	@Override
 	public void onOpen() {
+		if (isRangeCompleted()) {
+			setList(null);
+			return;
+		}
+
 		lastFromTxId = fromTxId.longValue();
 		// setCurrentItemCount(0);
 		// setMaxItemCount(lastCount > 0 ? lastCount : 1);
@@ -109,9 +200,153 @@ public class AlfrescoWorkspaceRestReader extends AbstractPeltasRestReader<Alfres
 
 	@Override
 	public void onClose() {
+		if (isPrefetching()) {
+			stopPrefetch();
+		}
+		stopMetadataExecutor();
 		super.onClose();
 	}
 
+	public boolean isPrefetching() {
+		return prefetch > 0;
+	}
+
+	private void startPrefetch() {
+		prefetchDrained = false;
+		prefetchFailure = null;
+		prefetchedWindowSize = window.getSize();
+		prefetchedWindows = new ArrayBlockingQueue<>(prefetch);
+
+		CustomizableThreadFactory threadFactory = new CustomizableThreadFactory(
+				"peltas-prefetch-" + getCurrentApplicationName() + "-");
+		threadFactory.setDaemon(true);
+		prefetchExecutor = Executors.newSingleThreadExecutor(threadFactory);
+		prefetchTask = prefetchExecutor.submit(this::prefetchWindows);
+	}
+
+	/**
+	 * Runs on the prefetch thread, which owns the transaction window until
+	 * {@link #stopPrefetch()} returns.
+	 */
+	private void prefetchWindows() {
+		try {
+			while (!Thread.currentThread().isInterrupted()) {
+				if (isRangeCompleted()) {
+					prefetchedWindows.put(new PrefetchedWindow(null, window.getSize(), null));
+					return;
+				}
+
+				lastFromTxId = fromTxId.longValue();
+				List<PeltasEntry> entries = fetchCollection();
+
+				if (!entries.isEmpty()) {
+					prefetchedWindows.put(new PrefetchedWindow(entries, window.getSize(), null));
+					// the checkpoint is not known yet, continue right after the fetched window
+					nextWindow();
+				} else if (lastFromTxId.equals(fromTxId.longValue())) {
+					// the window did not move, the repository has nothing new for now
+					prefetchedWindows.put(new PrefetchedWindow(null, window.getSize(), null));
+					return;
+				}
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} catch (Throwable e) {
+			LOGGER.error("prefetchWindows() failed to fetch the window {}-{}", fromTxId, toTxId, e);
+			// the windows read ahead are dropped so the error always gets through, close()
+			// restarts from the checkpoint anyway
+			prefetchedWindows.clear();
+			try {
+				prefetchedWindows.put(new PrefetchedWindow(null, window.getSize(), e));
+			} catch (InterruptedException interrupted) {
+				Thread.currentThread().interrupt();
+			}
+		}
+	}
+
+	/**
+	 * @return the next prefetched window, or null at the end of the range
+	 */
+	private List<PeltasEntry> takePrefetchedWindow() throws Exception {
+		if (prefetchDrained) {
+			return null;
+		}
+		if (prefetchFailure != null) {
+			throw new PeltasException("prefetching stopped after a failure, the reader must be reopened",
+					prefetchFailure);
+		}
+
+		PrefetchedWindow prefetched;
+		while ((prefetched = prefetchedWindows.poll(PREFETCH_POLL_SECONDS, TimeUnit.SECONDS)) == null) {
+			if (prefetchTask.isDone()) {
+				// the last window may have been handed over right before the thread ended
+				prefetched = prefetchedWindows.poll();
+				if (prefetched == null) {
+					prefetchFailure = new PeltasException("the prefetch thread ended without handing over a window");
+					throw (PeltasException) prefetchFailure;
+				}
+				break;
+			}
+			LOGGER.debug("takePrefetchedWindow() waiting for the window {}-{}", fromTxId, toTxId);
+		}
+
+		prefetchedWindowSize = prefetched.windowSize;
+		if (prefetched.error != null) {
+			prefetchFailure = prefetched.error;
+			if (prefetched.error instanceof Exception) {
+				throw (Exception) prefetched.error;
+			}
+			if (prefetched.error instanceof Error) {
+				throw (Error) prefetched.error;
+			}
+			throw new PeltasException("prefetching failed", prefetched.error);
+		}
+		if (prefetched.entries == null) {
+			prefetchDrained = true;
+			return null;
+		}
+		return prefetched.entries;
+	}
+
+	private void stopPrefetch() {
+		if (prefetchExecutor == null) {
+			return;
+		}
+
+		prefetchExecutor.shutdownNow();
+		try {
+			// the window must not move once it is handed back to the step thread
+			while (!prefetchExecutor.awaitTermination(1, TimeUnit.SECONDS)) {
+				LOGGER.debug("stopPrefetch() waiting for the running request to finish");
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		prefetchExecutor = null;
+		prefetchTask = null;
+
+		// windows read ahead are dropped and, even once the range is drained, the last
+		// chunk may not be written: restart after the last written node
+		LOGGER.debug("stopPrefetch() discarding {} prefetched windows", prefetchedWindows.size());
+		setList(null);
+		resetToCheckpoint(auditTimeStamp);
+		prefetchedWindows = null;
+		prefetchFailure = null;
+	}
+
+	@Override
+	protected List<PeltasEntry> fetchCollection() {
+		if (tailFollower != null && tailFollower.isIdle()) {
+			// caught up with the repository, nothing is requested until the backoff ends
+			return Collections.emptyList();
+		}
+		return super.fetchCollection();
+	}
+
+	public AlfrescoTailFollower getTailFollower() {
+		return tailFollower;
+	}
+
 	@Override
 	protected AlfrescoWorkspaceNodes onResponseReceived(AlfrescoWorkspaceNodes auditEntries) {
 		List<AlfrescoNode> notSorted = auditEntries.getNodes();
@@ -138,27 +373,46 @@ public class AlfrescoWorkspaceRestReader extends AbstractPeltasRestReader<Alfres
 	@BeforeChunk
 	public void beforeChunk(ChunkContext context) {
 		context.setAttribute("peltasTimestamp", auditTimeStamp);
+		if (checkpoint != null) {
+			long windowSize = isPrefetching() ? prefetchedWindowSize : window.getSize();
+			context.setAttribute(PeltasCheckpoint.CHUNK_ATTRIBUTE, checkpoint.withWindowSize(windowSize));
+		}
 	}
 
 	@AfterChunk
 	public void afterChunk(ChunkContext context) {
 		auditTimeStamp = (PeltasTimestamp) context.getAttribute("peltasTimestamp");
-		if (auditTimeStamp == null) {
+		PeltasCheckpoint written = (PeltasCheckpoint) context.getAttribute(PeltasCheckpoint.CHUNK_ATTRIBUTE);
+		if (auditTimeStamp == null || written == null) {
 			// before chunk was not executed, it is highly probably that the alfresco server
 			// was down
 			return;
 		}
+		checkpoint = written;
 
-		String[] tx = auditTimeStamp.getRef().split(";");
-		Long currentTxId = Long.valueOf(tx[0]);
-		txId.set(currentTxId);
-		fromTxId = txId.incrementAndGet();
-		toTxId = txId.addAndGet(5);
+		if (isPrefetching()) {
+			// the prefetch thread moves the window, the checkpoint is only used on close
+			return;
+		}
+
+		if (checkpoint.getLastTxnId() != null) {
+			txId.set(checkpoint.getLastTxnId());
+		}
+		nextWindow();
 	}
 
 	@Override
 	protected PeltasEntry doRetryRead() throws Exception {
-		if (!retry) {
+		if (isPrefetching()) {
+			List<PeltasEntry> entries = takePrefetchedWindow();
+			if (entries == null) {
+				return null;
+			}
+			setList(entries);
+			return read();
+		}
+
+		if (!retry || isRangeCompleted()) {
 			return null;
 		}
 
@@ -175,19 +429,18 @@ public class AlfrescoWorkspaceRestReader extends AbstractPeltasRestReader<Alfres
 	protected List<PeltasEntry> retreiveCollection(AlfrescoWorkspaceNodes response) {
 
 		List<AlfrescoNode> nodes = response.getNodes();
+		window.onWindowFetched(nodes.size());
+		metrics.recordWindow(getCurrentApplicationName(), nodes.size());
+		LOGGER.trace("retreiveCollection() window {}-{} returned {} nodes, next window size {}", fromTxId, toTxId,
+				nodes.size(), window.getSize());
+
 		if (nodes.size() > 0) {
 			retry = true;
-		} else {
-			retry = false;			
-			if (currentMaxTxId.longValue() > lastFromTxId.longValue()) {
-				retry = true;
-				fromTxId = txId.incrementAndGet();
-				toTxId = txId.addAndGet(5);
-			} else {
-				currentMaxTxId = getCurrentMaxTxnId();
-				retry = true;
+			if (tailFollower != null) {
+				tailFollower.onProgress();
 			}
-			return Collections.emptyList();
+		} else {
+			return onEmptyWindow();
 		}
 
 		List<AlfrescoNodeMetadata> deletedNodesMetadata = fetchDeletedNodesMetadata(nodes);
@@ -206,17 +459,187 @@ public class AlfrescoWorkspaceRestReader extends AbstractPeltasRestReader<Alfres
 		}
 
 		if (nodesId.size() == 0) {
-			if (currentMaxTxId.longValue() > lastFromTxId.longValue()) {
-				retry = true;
-				fromTxId = txId.incrementAndGet();
-				toTxId = txId.addAndGet(5);
-			} else {
-				currentMaxTxId = getCurrentMaxTxnId();
-				retry = true;
+			return onEmptyWindow();
+		}
+
+		List<PeltasEntry> metadataList;
+		if (metadataBatchSize > 0) {
+			metadataList = fetchMetadataInBatches(nodesId, deletedNodesMetadata, nodesMap);
+		} else {
+			metadataList = fetchMetadata(nodesId, deletedNodesMetadata, nodesMap);
+		}
+
+		LOGGER.trace("retreiveCollection() repository data received {}", metadataList);
+
+		return metadataList;
+	}
+
+	private List<PeltasEntry> onEmptyWindow() {
+		retry = true;
+		if (tailFollower != null) {
+			followTail();
+		} else if (currentMaxTxId.longValue() > lastFromTxId.longValue()) {
+			nextWindow();
+		} else {
+			currentMaxTxId = getCurrentMaxTxnId();
+		}
+		return Collections.emptyList();
+	}
+
+	/**
+	 * Moves an empty window straight to the next existing transaction, or backs
+	 * off when the window already covers the head of the transaction log.
+	 */
+	private void followTail() {
+		Long maxTxnId = tailFollower.getMaxTxnId();
+		if (maxTxnId != null && maxTxnId <= toTxId) {
+			tailFollower.onCaughtUp();
+			LOGGER.trace("followTail() caught up at {}, idle for {}ms", maxTxnId, tailFollower.getBackoff());
+			return;
+		}
+
+		AlfrescoWorkspaceTxnMetadata txnMetadata = fetchTransactions(toTxId + 1);
+		if (txnMetadata == null) {
+			tailFollower.onCaughtUp();
+			return;
+		}
+
+		tailFollower.setMaxTxnId(txnMetadata.getMaxTxnId());
+		if (txnMetadata.getMaxTxnId() != null) {
+			currentMaxTxId = txnMetadata.getMaxTxnId();
+		}
+
+		List<HashMap<String, Object>> transactions = txnMetadata.getTransactions();
+		if (transactions == null || transactions.isEmpty() || transactions.get(0).get("id") == null) {
+			tailFollower.onCaughtUp();
+			LOGGER.trace("followTail() no transaction after {}, idle for {}ms", toTxId, tailFollower.getBackoff());
+			return;
+		}
+
+		long nextTxnId = ((Number) transactions.get(0).get("id")).longValue();
+		LOGGER.trace("followTail() jumping from {} to the next transaction {}", toTxId, nextTxnId);
+		txId.set(lastTxId != null ? Math.min(nextTxnId - 1, lastTxId) : nextTxnId - 1);
+		nextWindow();
+	}
+
+	private List<PeltasEntry> fetchMetadata(List<Long> nodesId, List<AlfrescoNodeMetadata> deletedNodesMetadata,
+			LinkedMultiValueMap<Long, AlfrescoNode> nodesMap) {
+		String url = getMetadataUrl();
+		HttpEntity<?> request = createMetadataRequest(nodesId);
+
+		LOGGER.trace("retreiveCollection() repository data {}", url);
+		List<PeltasEntry> metadataList = new ArrayList<>(nodesId.size());
+		if (streaming) {
+			getRestTemplate().execute(url, HttpMethod.POST,
+					getRestTemplate().httpEntityCallback(request, AlfrescoNodeMetadataList.class),
+					new AlfrescoNodeMetadataExtractor(getObjectMapper(),
+							metadata -> metadataList.add(convertToAudit(metadata, nodesMap))));
+		} else {
+			ResponseEntity<AlfrescoNodeMetadataList> responseMetadata = getRestTemplate().exchange(url,
+					HttpMethod.POST, request, AlfrescoNodeMetadataList.class);
+			AlfrescoNodeMetadataList body = responseMetadata.getBody();
+			for (AlfrescoNodeMetadata metadata : body.getNodes()) {
+				metadataList.add(convertToAudit(metadata, nodesMap));
 			}
-			return Collections.emptyList();	
 		}
 
+		for (AlfrescoNodeMetadata metadata : deletedNodesMetadata) {
+			metadataList.add(convertToAudit(metadata, nodesMap));
+		}
+		return metadataList;
+	}
+
+	/**
+	 * Splits the node ids in batches of {@code metadataBatchSize} and requests
+	 * them with up to {@code metadataParallelism} concurrent requests. The nodes
+	 * are converted on the calling thread, in txnId/nodeId order.
+	 */
+	private List<PeltasEntry> fetchMetadataInBatches(List<Long> nodesId,
+			List<AlfrescoNodeMetadata> deletedNodesMetadata, LinkedMultiValueMap<Long, AlfrescoNode> nodesMap) {
+		List<List<Long>> batches = new ArrayList<>();
+		for (int i = 0; i < nodesId.size(); i += metadataBatchSize) {
+			batches.add(nodesId.subList(i, Math.min(nodesId.size(), i + metadataBatchSize)));
+		}
+
+		List<AlfrescoNodeMetadata> nodesMetadata = new ArrayList<>(nodesId.size() + deletedNodesMetadata.size());
+		if (batches.size() == 1 || metadataParallelism <= 1) {
+			for (List<Long> batch : batches) {
+				nodesMetadata.addAll(fetchMetadataBatch(batch));
+			}
+		} else {
+			ExecutorService executor = getMetadataExecutor();
+			List<Future<List<AlfrescoNodeMetadata>>> futures = new ArrayList<>(batches.size());
+			for (List<Long> batch : batches) {
+				futures.add(executor.submit(() -> fetchMetadataBatch(batch)));
+			}
+			try {
+				for (Future<List<AlfrescoNodeMetadata>> future : futures) {
+					nodesMetadata.addAll(future.get());
+				}
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new PeltasException("interrupted while fetching the nodes metadata", e);
+			} catch (ExecutionException e) {
+				if (e.getCause() instanceof RuntimeException) {
+					throw (RuntimeException) e.getCause();
+				}
+				throw new PeltasException("could not fetch the nodes metadata", e.getCause());
+			} finally {
+				futures.forEach(future -> future.cancel(true));
+			}
+		}
+
+		nodesMetadata.addAll(deletedNodesMetadata);
+		nodesMetadata.sort(METADATA_ORDER);
+
+		List<PeltasEntry> metadataList = new ArrayList<>(nodesMetadata.size());
+		for (AlfrescoNodeMetadata metadata : nodesMetadata) {
+			metadataList.add(convertToAudit(metadata, nodesMap));
+		}
+		return metadataList;
+	}
+
+	private List<AlfrescoNodeMetadata> fetchMetadataBatch(List<Long> nodesId) {
+		String url = getMetadataUrl();
+		HttpEntity<?> request = createMetadataRequest(nodesId);
+
+		LOGGER.trace("fetchMetadataBatch() repository data {} for {} nodes", url, nodesId.size());
+		// the batches are merged in txnId/nodeId order, so their nodes are collected either way
+		if (streaming) {
+			List<AlfrescoNodeMetadata> nodesMetadata = new ArrayList<>(nodesId.size());
+			getRestTemplate().execute(url, HttpMethod.POST,
+					getRestTemplate().httpEntityCallback(request, AlfrescoNodeMetadataList.class),
+					new AlfrescoNodeMetadataExtractor(getObjectMapper(), nodesMetadata::add));
+			return nodesMetadata;
+		}
+
+		ResponseEntity<AlfrescoNodeMetadataList> responseMetadata = getRestTemplate().exchange(url, HttpMethod.POST,
+				request, AlfrescoNodeMetadataList.class);
+		return responseMetadata.getBody().getNodes();
+	}
+
+	private synchronized ExecutorService getMetadataExecutor() {
+		if (metadataExecutor == null) {
+			CustomizableThreadFactory threadFactory = new CustomizableThreadFactory(
+					"peltas-metadata-" + getCurrentApplicationName() + "-");
+			threadFactory.setDaemon(true);
+			metadataExecutor = Executors.newFixedThreadPool(metadataParallelism, threadFactory);
+		}
+		return metadataExecutor;
+	}
+
+	private synchronized void stopMetadataExecutor() {
+		if (metadataExecutor != null) {
+			metadataExecutor.shutdownNow();
+			metadataExecutor = null;
+		}
+	}
+
+	private String getMetadataUrl() {
+		return auditProperties.getHost() + "/" + auditProperties.getServiceUrl() + "/metadata";
+	}
+
+	private HttpEntity<?> createMetadataRequest(List<Long> nodesId) {
 		Map<Object, Object> map = new HashMap<>();
 		map.put("nodeIds", nodesId);
 		map.put("includeProperties", "true");
@@ -226,30 +649,27 @@ public class AlfrescoWorkspaceRestReader extends AbstractPeltasRestReader<Alfres
 		map.put("includeAclId", "false");
 		map.put("includePaths", "false");
 		map.put("includeAspects", "true");
+		return new HttpEntity<>(map);
+	}
 
-		String url = auditProperties.getHost() + "/" + auditProperties.getServiceUrl() + "/metadata";
-
-		LOGGER.trace("retreiveCollection() repository data {}", url);
-		ResponseEntity<AlfrescoNodeMetadataList> responseMetadata = getRestTemplate().exchange(url, HttpMethod.POST,
-				new HttpEntity<>(map), AlfrescoNodeMetadataList.class);
-		AlfrescoNodeMetadataList body = responseMetadata.getBody();
-		List<AlfrescoNodeMetadata> nodesMetadata = body.getNodes();
-		nodesMetadata.addAll(deletedNodesMetadata);
-
-		if (nodesMetadata.size() == 0) {
-			return Collections.emptyList();
-		}
-
-		List<PeltasEntry> metadataList = new ArrayList<>(nodesMetadata.size());
-		for (AlfrescoNodeMetadata metadata : nodesMetadata) {
-			AlfrescoNode livedataNode = nodesMap.get(metadata.getId()).remove(0);
-			PeltasEntry auditEntry = convertToAudit(metadata, livedataNode);
-			metadataList.add(auditEntry);
+	private void nextWindow() {
+		fromTxId = txId.incrementAndGet();
+		toTxId = txId.addAndGet(window.getSize());
+		if (lastTxId != null && toTxId > lastTxId) {
+			toTxId = Math.max(fromTxId, lastTxId);
+			txId.set(toTxId);
 		}
+	}
 
-		LOGGER.trace("retreiveCollection() repository data received {}", metadataList);
+	/**
+	 * @return true once every transaction of a bounded range has been read
+	 */
+	public boolean isRangeCompleted() {
+		return lastTxId != null && fromTxId > lastTxId;
+	}
 
-		return metadataList;
+	public AlfrescoTransactionWindow getWindow() {
+		return window;
 	}
 
 	private List<AlfrescoNodeMetadata> fetchDeletedNodesMetadata(List<AlfrescoNode> nodes) {
@@ -271,6 +691,22 @@ public class AlfrescoWorkspaceRestReader extends AbstractPeltasRestReader<Alfres
 		return result;
 	}
 
+	private PeltasEntry convertToAudit(AlfrescoNodeMetadata metadata, LinkedMultiValueMap<Long, AlfrescoNode> nodesMap) {
+		AlfrescoNode livedataNode = nodesMap.get(metadata.getId()).remove(0);
+		return convertToAudit(metadata, livedataNode);
+	}
+
+	private ObjectMapper getObjectMapper() {
+		if (objectMapper == null) {
+			objectMapper = getRestTemplate().getMessageConverters().stream()
+					.filter(MappingJackson2HttpMessageConverter.class::isInstance)
+					.map(converter -> ((MappingJackson2HttpMessageConverter) converter).getObjectMapper()).findFirst()
+					.orElseGet(() -> new ObjectMapper().configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES,
+							false));
+		}
+		return objectMapper;
+	}
+
 	private PeltasEntry convertToAudit(AlfrescoNodeMetadata livedataMetadata, AlfrescoNode livedataNode) {
 		PeltasEntry auditEntry = new PeltasEntry();
 
@@ -366,20 +802,85 @@ public class AlfrescoWorkspaceRestReader extends AbstractPeltasRestReader<Alfres
 		return false;
 	}
 
+	/**
+	 * @return the transactions between the last committed one and the max
+	 *         transaction of the repository, NaN before the reader is initialized
+	 */
+	public double getCheckpointLag() {
+		Long maxTxId = currentMaxTxId;
+		if (maxTxId == null) {
+			return Double.NaN;
+		}
+		PeltasCheckpoint committed = checkpoint;
+		long committedTxId = committed != null && committed.getLastTxnId() != null ? committed.getLastTxnId()
+				: firstTxId - 1;
+		return Math.max(0, maxTxId - committedTxId);
+	}
+
+	public void setMetrics(PeltasMetrics metrics) {
+		this.metrics = metrics;
+		metrics.gaugeWindowSize(getCurrentApplicationName(), window, AlfrescoTransactionWindow::getSize);
+		metrics.gaugeCheckpointLag(getCurrentApplicationName(), this, AlfrescoWorkspaceRestReader::getCheckpointLag);
+	}
+
+	/**
+	 * @return the last transaction of the repository, null when it could not be
+	 *         requested
+	 */
+	public Long requestMaxTxnId() {
+		AlfrescoWorkspaceTxnMetadata txnMetadata = fetchTransactions(1);
+		return txnMetadata != null ? txnMetadata.getMaxTxnId() : null;
+	}
+
 	private Long getCurrentMaxTxnId() {
+		if (tailFollower != null && tailFollower.getMaxTxnId() != null) {
+			return tailFollower.getMaxTxnId();
+		}
+
+		LOGGER.trace("Getting MAX transactions from Alfresco/SOLR");
+		AlfrescoWorkspaceTxnMetadata txnMetadata = fetchTransactions(1);
+		if (txnMetadata == null) {
+			return currentMaxTxId != null ? currentMaxTxId : 1;
+		}
+		LOGGER.trace("Received MAX transactions from Alfresco/SOLR");
+
+		if (tailFollower != null) {
+			tailFollower.setMaxTxnId(txnMetadata.getMaxTxnId());
+		}
+		return txnMetadata.getMaxTxnId();
+	}
+
+	/**
+	 * @return the first transaction from {@code minTxnId} on and the max
+	 *         transaction id, null when the repository could not be reached
+	 */
+	private AlfrescoWorkspaceTxnMetadata fetchTransactions(long minTxnId) {
 		String url = auditProperties.getHost() + "/" + auditProperties.getServiceUrl() + "/transactions";
-		url = UriComponentsBuilder.fromHttpUrl(url).queryParam("minTxnId", 1).queryParam("maxResults", 1).toUriString();
+		url = UriComponentsBuilder.fromHttpUrl(url).queryParam("minTxnId", minTxnId).queryParam("maxResults", 1)
+				.toUriString();
 
 		try {
-			LOGGER.trace("Getting MAX transactions from Alfresco/SOLR");
 			ResponseEntity<AlfrescoWorkspaceTxnMetadata> response = getRestTemplate().getForEntity(url,
 					AlfrescoWorkspaceTxnMetadata.class);
-			LOGGER.trace("Received MAX transactions from Alfresco/SOLR");
-			AlfrescoWorkspaceTxnMetadata txnMetadata = response.getBody();
-			return txnMetadata.getMaxTxnId();
+			return response.getBody();
 		} catch (RestClientException e) {
-			return currentMaxTxId != null ? currentMaxTxId : 1;
+			LOGGER.debug("fetchTransactions() could not read the transactions from {}: {}", minTxnId, e.getMessage());
+			return null;
 		}
 	}
 
+	private static class PrefetchedWindow {
+
+		// null at the end of the range
+		final List<PeltasEntry> entries;
+		// the window size once the window was fetched, stored with the checkpoint
+		final long windowSize;
+		final Throwable error;
+
+		PrefetchedWindow(List<PeltasEntry> entries, long windowSize, Throwable error) {
+			this.entries = entries;
+			this.windowSize = windowSize;
+			this.error = error;
+		}
+	}
 }
@@ -16,32 +16,24 @@
 
 package io.peltas.boot;
 
-import java.text.ParseException;
-import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
-import java.util.Locale;
 import java.util.Map;
 import java.util.Map.Entry;
-import java.util.Set;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.core.convert.converter.Converter;
-import org.springframework.integration.transformer.ObjectToMapTransformer;
-import org.springframework.messaging.Message;
-import org.springframework.messaging.support.GenericMessage;
-import org.springframework.util.StringUtils;
 
+import io.peltas.core.MapFlattener;
+import io.peltas.core.converter.PeltasConverter;
+import io.peltas.core.converter.PeltasDateFormats;
 import io.peltas.core.converter.PrefixStringHashMap;
-import io.peltas.core.integration.PeltasConversionException;
-import io.peltas.core.integration.PeltasFormatUtil;
+import io.peltas.core.converter.PrefixStringKeyCache;
 
 @Configuration
 @EnableConfigurationProperties(AlfrescoModelConfigurationProperties.class)
@@ -49,25 +41,15 @@ public class DefaultConvertersConfiguration {
 
 	@Bean
 	public Converter<?, ?> mapToPrefixedMapConverter(AlfrescoModelConfigurationProperties alfescoModelConfiguration) {
+		final PrefixStringKeyCache keyCache = new PrefixStringKeyCache(alfescoModelConfiguration::getPrefix);
 		return new Converter<Map<String, Object>, PrefixStringHashMap<String, Object>>() {
 			@Override
 			public PrefixStringHashMap<String, Object> convert(Map<String, Object> source) {
 				PrefixStringHashMap<String, Object> prefixStringHashMap = new PrefixStringHashMap<>();
 
-				Pattern pattern = Pattern.compile("(\\{.*\\})(.*)");
-
-				Set<Entry<String, Object>> entrySet = source.entrySet();
-				for (Entry<String, Object> entry : entrySet) {
-					String key = entry.getKey();
-					Matcher matcher = pattern.matcher(key);
-					if (matcher.find() && matcher.groupCount() == 2) {
-						String group = matcher.group(1);
-						String namespace = group.substring(1, group.length() - 1);
-						String localName = matcher.group(2);
-
-						String prefix = alfescoModelConfiguration.getPrefix(namespace);
-
-						String formated = String.format("%s:%s", prefix, localName);
+				for (Entry<String, Object> entry : source.entrySet()) {
+					String formated = keyCache.toPrefixString(entry.getKey());
+					if (formated != null) {
 						prefixStringHashMap.put(formated, entry.getValue());
 					}
 				}
@@ -78,63 +60,40 @@ public class DefaultConvertersConfiguration {
 	}
 
 	@Bean
-	public Converter<?, ?> stringToDateConverter(PeltasFormatUtil peltasFormatUtil) {
-		return new Converter<String, Date>() {
+	public PeltasDateFormats peltasDateFormats() {
+		return new PeltasDateFormats();
+	}
+
+	@Bean
+	public Converter<?, ?> stringToDateConverter(PeltasDateFormats peltasDateFormats) {
+		return new PeltasConverter<String, Date>() {
 			@Override
-			public Date convert(String source) {
-				final String initialFormat = peltasFormatUtil.getCurrentFormat();
-				String format = initialFormat;
-				if (!StringUtils.hasText(format)) {
-					format = "EEE MMM dd HH:mm:ss zzz yyyy"; // old audit
-				}
-				try {
-					return new SimpleDateFormat(format, Locale.ENGLISH).parse(source);
-				} catch (final ParseException e) {
-					if (StringUtils.hasText(initialFormat)) {
-						throw new PeltasConversionException(e);
-					}
-					format = "yyyy-MM-dd'T'HH:mm:ss.SSSZ"; // v1
-					try {
-						return new SimpleDateFormat(format).parse(source);
-					} catch (final ParseException e1) {
-						try {
-							format = "yyyy-MM-dd'T'HH:mm:ss.SSS";
-							return new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss.SSS").parse(source);
-						} catch (final ParseException e2) {
-							throw new PeltasConversionException(e2);
-						}
-					}
-				}
+			public Date convert(String source, String format, List<String> formatKeys) {
+				return peltasDateFormats.parse(source, format);
 			}
 		};
 	}
 
 	@Bean
-	public Converter<?, ?> dateToStringConverter(PeltasFormatUtil peltasFormatUtil) {
-		return new Converter<Date, String>() {
+	public Converter<?, ?> dateToStringConverter(PeltasDateFormats peltasDateFormats) {
+		return new PeltasConverter<Date, String>() {
 			@Override
-			public String convert(Date source) {
-				final String format = peltasFormatUtil.getCurrentFormat();
-				return new SimpleDateFormat(format).format(source);
+			public String convert(Date source, String format, List<String> formatKeys) {
+				return peltasDateFormats.format(source, format);
 			}
 		};
 	}
 
 	@Bean
 	public Converter<?, ?> mapToCollectionConverter() {
+		final MapFlattener flattener = new MapFlattener();
 		return new Converter<HashMap<String, Object>, Collection<?>>() {
 			@Override
 			public Collection<?> convert(HashMap<String, Object> source) {
-				final ObjectToMapTransformer transformer = new ObjectToMapTransformer();
-				transformer.setShouldFlattenKeys(true);
-				final Message<Map<String, Object>> message = new GenericMessage<Map<String, Object>>(source);
-
-				@SuppressWarnings("unchecked")
-				final Map<String, Object> payload = (Map<String, Object>) transformer.transform(message).getPayload();
-				final Set<Map.Entry<String, Object>> entrySet = payload.entrySet();
+				final Map<String, Object> payload = flattener.flatten(source);
 
-				final ArrayList<Map<String, Object>> list = new ArrayList<>();
-				for (final Map.Entry<String, Object> entry : entrySet) {
+				final ArrayList<Map<String, Object>> list = new ArrayList<>(payload.size());
+				for (final Map.Entry<String, Object> entry : payload.entrySet()) {
 					final Object value = entry.getValue() != null ? entry.getValue() : "";
 					Map<String, Object> map = new HashMap<>();
 					map.put("key", entry.getKey());
@@ -147,14 +106,11 @@ public class DefaultConvertersConfiguration {
 	}
 
 	@Bean
-	public Converter<?, ?> mapToFormattedKeyMapConverter(final PeltasFormatUtil peltasFormatUtil) {
-		return new Converter<Collection<Map<?, ?>>, Collection<String>>() {
+	public Converter<?, ?> mapToFormattedKeyMapConverter() {
+		return new PeltasConverter<Collection<Map<?, ?>>, Collection<String>>() {
 
 			@Override
-			public Collection<String> convert(Collection<Map<?, ?>> source) {
-				String format = peltasFormatUtil.getCurrentFormat();
-				List<String> formatKeys = peltasFormatUtil.getCurrentFormatKeys();
-
+			public Collection<String> convert(Collection<Map<?, ?>> source, String format, List<String> formatKeys) {
 				final ArrayList<String> list = new ArrayList<>();
 				for (Map<?, ?> map : source) {
 					List<Object> dataValues = new ArrayList<>();
@@ -16,9 +16,12 @@
 
 package io.peltas.boot;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.stream.Collectors;
 
 import javax.annotation.PostConstruct;
@@ -35,6 +38,8 @@ import org.springframework.batch.core.configuration.annotation.JobBuilderFactory
 import org.springframework.batch.core.configuration.annotation.StepBuilderFactory;
 import org.springframework.batch.core.configuration.support.MapJobRegistry;
 import org.springframework.batch.core.explore.JobExplorer;
+import org.springframework.batch.core.job.builder.FlowBuilder;
+import org.springframework.batch.core.job.flow.Flow;
 import org.springframework.batch.core.explore.support.AbstractJobExplorerFactoryBean;
 import org.springframework.batch.core.explore.support.MapJobExplorerFactoryBean;
 import org.springframework.batch.core.launch.JobLauncher;
@@ -45,6 +50,7 @@ import org.springframework.batch.core.repository.support.MapJobRepositoryFactory
 import org.springframework.batch.core.step.builder.SimpleStepBuilder;
 import org.springframework.batch.item.ItemReader;
 import org.springframework.batch.item.ItemWriter;
+import org.springframework.beans.factory.DisposableBean;
 import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
@@ -52,6 +58,7 @@ import org.springframework.boot.autoconfigure.AutoConfigureBefore;
 import org.springframework.boot.autoconfigure.batch.BasicBatchConfigurer;
 import org.springframework.boot.autoconfigure.batch.BatchAutoConfiguration;
 import org.springframework.boot.autoconfigure.batch.BatchProperties;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.boot.autoconfigure.http.HttpMessageConverters;
@@ -63,11 +70,14 @@ import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.PropertySource;
 import org.springframework.core.convert.ConversionService;
 import org.springframework.core.convert.converter.Converter;
+import org.springframework.core.task.AsyncTaskExecutor;
 import org.springframework.core.task.SyncTaskExecutor;
 import org.springframework.format.FormatterRegistry;
+import org.springframework.http.client.ClientHttpRequestFactory;
 import org.springframework.http.client.support.BasicAuthenticationInterceptor;
 import org.springframework.http.converter.HttpMessageConverter;
 import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.util.StringUtils;
 import org.springframework.web.client.RestOperations;
@@ -76,6 +86,9 @@ import org.springframework.web.client.RestTemplate;
 import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+
 import io.peltas.alfresco.AlfrescoWorkspaceRestReader;
 import io.peltas.boot.PeltasProperties.Authentication.BasicAuth;
 import io.peltas.boot.PeltasProperties.Authentication.Header;
@@ -83,9 +96,11 @@ import io.peltas.core.PeltasEntry;
 import io.peltas.core.PeltasException;
 import io.peltas.core.StringToMapUtil;
 import io.peltas.core.batch.PeltasDataHolder;
+import io.peltas.core.batch.PeltasExecutionItemWriter;
 import io.peltas.core.batch.PeltasItemProcessor;
 import io.peltas.core.batch.PeltasListenerAdapter;
 import io.peltas.core.batch.PeltasProcessor;
+import io.peltas.core.batch.PeltasStepBuilder;
 import io.peltas.core.expression.ContainsExpressionEvaluator;
 import io.peltas.core.expression.ContainsNotExpressionEvaluator;
 import io.peltas.core.expression.ContainsNotPrefixStringExpressionEvaluator;
@@ -93,22 +108,31 @@ import io.peltas.core.expression.ContainsPrefixStringExpressionEvaluator;
 import io.peltas.core.expression.EqualsExpressionEvaluator;
 import io.peltas.core.expression.EvaluatorExpressionRegistry;
 import io.peltas.core.http.HeaderInterceptor;
+import io.peltas.core.http.MetricsInterceptor;
+import io.peltas.core.http.PeltasClientHttpRequestFactories;
 import io.peltas.core.integration.DoNotProcessHandler;
 import io.peltas.core.integration.PeltasEntryHandler;
 import io.peltas.core.integration.PeltasFormatUtil;
+import io.peltas.core.metrics.PeltasMetrics;
+import io.peltas.core.repository.CachingTxDataRepository;
+import io.peltas.core.repository.PeltasCheckpoint;
 import io.peltas.core.repository.TxDataRepository;
+import io.peltas.core.repository.jdbc.PeltasJdbcWriter;
+import io.peltas.core.repository.jpa.PeltasTimestamp;
 
 // @Aspect FIXME: check pointcut for stopping
 @Configuration
 @PropertySource(ignoreResourceNotFound = true, value = { "classpath:/io/peltas/peltas-alfresco.properties" })
 @EnableConfigurationProperties({ PeltasProperties.class, PeltasHandlerConfigurationProperties.class })
 @AutoConfigureBefore({ BatchAutoConfiguration.class, HttpMessageConvertersAutoConfiguration.class })
-public class PeltasBatchConfiguration extends BasicBatchConfigurer {
+public class PeltasBatchConfiguration extends BasicBatchConfigurer implements DisposableBean {
 
 	private static final Logger LOGGER = LoggerFactory.getLogger(PeltasBatchConfiguration.class);
 
 	public static final String AUDIT_ID_SEPARATOR = "___";
 
+	public static final String PARTITIONS_SUFFIX = "-partitions";
+
 	@Value("${peltas.chunksize}")
 	protected Integer chunkSize;
 
@@ -119,13 +143,17 @@ public class PeltasBatchConfiguration extends BasicBatchConfigurer {
 
 	private PlatformTransactionManager transactionManager;
 
+	// the executors created for the step, shut down with the context
+	private final List<ThreadPoolTaskExecutor> executors = new CopyOnWriteArrayList<>();
+
 	protected PeltasBatchConfiguration(BatchProperties properties, DataSource dataSource,
 			TransactionManagerCustomizers transactionManagerCustomizers, PlatformTransactionManager transactionManager,
 			TxDataRepository dataRepository) {
 		super(properties, dataSource, transactionManagerCustomizers);
 
 		this.transactionManager = transactionManager;
-		this.dataRepository = dataRepository;
+		this.dataRepository = dataRepository instanceof CachingTxDataRepository ? dataRepository
+				: new CachingTxDataRepository(dataRepository);
 	}
 
 	protected AbstractJobRepositoryFactoryBean createJobRepositoryFactory() throws Exception {
@@ -240,11 +268,29 @@ public class PeltasBatchConfiguration extends BasicBatchConfigurer {
 		return converter;
 	}
 
+	@Bean
+	@ConditionalOnMissingBean
+	public ClientHttpRequestFactory peltasClientHttpRequestFactory(PeltasProperties properties) {
+		return PeltasClientHttpRequestFactories.create(properties.getHttp());
+	}
+
+	/**
+	 * Records into the application {@link MeterRegistry}, or the global one which
+	 * keeps nothing until a registry is added to it.
+	 */
+	@Bean
+	@ConditionalOnMissingBean
+	public PeltasMetrics peltasMetrics(ObjectProvider<MeterRegistry> meterRegistry) {
+		return new PeltasMetrics(meterRegistry.getIfAvailable(() -> Metrics.globalRegistry));
+	}
+
 	@Bean
 	@ConditionalOnMissingBean(RestOperations.class)
 	@ConditionalOnProperty(value = "peltas.authenticationType", havingValue = "basicauth", matchIfMissing = false)
-	public RestTemplate restTemplateBasicAuth(PeltasProperties properties, HttpMessageConverters converters) {
-		RestTemplate restTemplate = new RestTemplate();
+	public RestTemplate restTemplateBasicAuth(PeltasProperties properties, HttpMessageConverters converters,
+			ClientHttpRequestFactory requestFactory, PeltasMetrics metrics) {
+		RestTemplate restTemplate = new RestTemplate(requestFactory);
+		restTemplate.getInterceptors().add(new MetricsInterceptor(metrics));
 
 		BasicAuth basicAuth = properties.getAuth().getBasic();
 		restTemplate.getInterceptors()
@@ -257,8 +303,10 @@ public class PeltasBatchConfiguration extends BasicBatchConfigurer {
 	@Bean
 	@ConditionalOnMissingBean(RestOperations.class)
 	@ConditionalOnProperty(value = "peltas.authenticationType", havingValue = "header", matchIfMissing = false)
-	public RestTemplate restTemplateHeader(PeltasProperties properties, HttpMessageConverters converters) {
-		RestTemplate restTemplate = new RestTemplate();
+	public RestTemplate restTemplateHeader(PeltasProperties properties, HttpMessageConverters converters,
+			ClientHttpRequestFactory requestFactory, PeltasMetrics metrics) {
+		RestTemplate restTemplate = new RestTemplate(requestFactory);
+		restTemplate.getInterceptors().add(new MetricsInterceptor(metrics));
 
 		Header header = properties.getAuth().getHeader();
 		restTemplate.getInterceptors().add(new HeaderInterceptor(header.getKey(), header.getValue()));
@@ -269,8 +317,13 @@ public class PeltasBatchConfiguration extends BasicBatchConfigurer {
 
 	@Bean
 	@ConditionalOnMissingBean(ItemReader.class)
-	public ItemReader<PeltasEntry> reader(RestTemplate restTemplate, PeltasProperties properties) {
-		return new AlfrescoWorkspaceRestReader(restTemplate, properties, dataRepository, properties.getApplication());
+	@ConditionalOnExpression("${peltas.partition.count:1} <= 1")
+	public ItemReader<PeltasEntry> reader(RestTemplate restTemplate, PeltasProperties properties,
+			PeltasMetrics metrics) {
+		AlfrescoWorkspaceRestReader reader = new AlfrescoWorkspaceRestReader(restTemplate, properties, dataRepository,
+				properties.getApplication());
+		reader.setMetrics(metrics);
+		return reader;
 	}
 
 	@Bean
@@ -286,10 +339,12 @@ public class PeltasBatchConfiguration extends BasicBatchConfigurer {
 			@Qualifier("integrationConversionService") ConversionService conversionService,
 			@Qualifier("mvcConversionService") ConversionService conversionService2,
 			PeltasHandlerConfigurationProperties handlerProperties, DoNotProcessHandler doNotProcessHandler,
-			PeltasListenerAdapter peltasListenerAdapter) {
-		return new PeltasProcessor(properties.getApplication(), dataRepository,
+			PeltasListenerAdapter peltasListenerAdapter, PeltasMetrics metrics) {
+		PeltasProcessor processor = new PeltasProcessor(properties.getApplication(), dataRepository,
 				new PeltasEntryHandler(converters, peltasFormatUtil), handlerProperties, false, doNotProcessHandler,
 				peltasListenerAdapter);
+		processor.setMetrics(metrics);
+		return processor;
 	}
 
 	@Bean
@@ -311,13 +366,11 @@ public class PeltasBatchConfiguration extends BasicBatchConfigurer {
 			public HashMap<String, Object> convert(String source) {
 				LOGGER.trace("converting String -> HashMap: {}", source);
 
-				final HashMap<String, Object> map = new HashMap<>();
 				if (StringUtils.hasText(source)) {
-					final Map<String, Object> stringToMap = StringToMapUtil.stringToMap(source, ',');
-					map.putAll(stringToMap);
+					return StringToMapUtil.stringToMap(source, ',');
 				}
 
-				return map;
+				return new HashMap<>();
 			}
 		};
 	}
@@ -345,15 +398,187 @@ public class PeltasBatchConfiguration extends BasicBatchConfigurer {
 	@ConditionalOnMissingBean
 	public Step step(JobRepository jobRepository, StepBuilderFactory stepBuilderFactory,
 			PlatformTransactionManager transactionManager, ItemWriter<PeltasDataHolder> peltasWriter,
-			PeltasItemProcessor peltasProcessor, PeltasListenerAdapter peltasListener, ItemReader<PeltasEntry> reader,
-			PeltasProperties properties) throws Exception {
-		SimpleStepBuilder<PeltasEntry, PeltasDataHolder> builder = stepBuilderFactory.get("peltas")
-				.<PeltasEntry, PeltasDataHolder>chunk(properties.getChunksize()).reader(reader)
-				.processor(peltasProcessor).writer(peltasWriter);
+			PeltasItemProcessor peltasProcessor, PeltasListenerAdapter peltasListener,
+			ObjectProvider<ItemReader<PeltasEntry>> reader,
+			PeltasProperties properties, RestTemplate restTemplate, List<Converter<?, ?>> converters,
+			PeltasFormatUtil peltasFormatUtil, PeltasHandlerConfigurationProperties handlerProperties,
+			DoNotProcessHandler doNotProcessHandler, PeltasMetrics metrics) throws Exception {
+		if (peltasWriter instanceof PeltasExecutionItemWriter) {
+			PeltasExecutionItemWriter<?, ?> executionWriter = (PeltasExecutionItemWriter<?, ?>) peltasWriter;
+			if (executionWriter.getMetrics() == PeltasMetrics.NOOP) {
+				executionWriter.setMetrics(metrics);
+			}
+			if (properties.getJdbc().getValidateExecutions()) {
+				executionWriter.validateExecutions(handlerProperties.getHandlers());
+			}
+		}
+		if (peltasWriter instanceof PeltasJdbcWriter) {
+			PeltasJdbcWriter jdbcWriter = (PeltasJdbcWriter) peltasWriter;
+			if (properties.getJdbc().getBatch() && !jdbcWriter.isBatch()) {
+				jdbcWriter.setBatch(true, properties.getJdbc().getNonBatchedExecutions());
+			}
+		}
+
+		AsyncTaskExecutor processorExecutor = createProcessorExecutor(properties);
+		if (properties.getPartition().getCount() > 1) {
+			PeltasEntryHandler handler = new PeltasEntryHandler(converters, peltasFormatUtil);
+			long[] firstTxIds = getPartitionFirstTxIds(restTemplate, properties);
+			List<Step> partitionSteps = new ArrayList<>();
+			for (int partition = 0; partition < firstTxIds.length; partition++) {
+				String applicationName = getPartitionApplicationName(properties.getApplication(), partition);
+				Long lastTxId = partition < firstTxIds.length - 1 ? firstTxIds[partition + 1] - 1 : null;
+				ItemReader<PeltasEntry> partitionReader = createPartitionReader(restTemplate, properties,
+						applicationName, firstTxIds[partition], lastTxId);
+				if (partitionReader instanceof AlfrescoWorkspaceRestReader) {
+					((AlfrescoWorkspaceRestReader) partitionReader).setMetrics(metrics);
+				}
+				PeltasItemProcessor partitionProcessor = new PeltasProcessor(applicationName, dataRepository, handler,
+						handlerProperties, false, doNotProcessHandler, peltasListener);
+				partitionProcessor.setMetrics(metrics);
+
+				partitionSteps.add(new PeltasStepBuilder<PeltasEntry, PeltasDataHolder>(
+						stepBuilderFactory.get(applicationName), processorExecutor).chunk(properties.getChunksize())
+								.reader(partitionReader).processor(partitionProcessor).writer(peltasWriter)
+								.repository(jobRepository).transactionManager(transactionManager).build());
+			}
+
+			return createPartitionedStep(stepBuilderFactory, jobRepository, partitionSteps, properties);
+		}
+
+		SimpleStepBuilder<PeltasEntry, PeltasDataHolder> builder = new PeltasStepBuilder<PeltasEntry, PeltasDataHolder>(
+				stepBuilderFactory.get("peltas"), processorExecutor).chunk(properties.getChunksize())
+						.reader(reader.getObject())
+						.processor(peltasProcessor).writer(peltasWriter);
 
 		return builder.repository(jobRepository).transactionManager(transactionManager).build();
 	}
 
+	/**
+	 * The executor is shared by the partitions, every step thread waits for the
+	 * items of its own chunk only. It is shut down with the context.
+	 * 
+	 * @return null to process the items on the step thread
+	 */
+	protected AsyncTaskExecutor createProcessorExecutor(PeltasProperties properties) {
+		Integer threads = properties.getProcessor().getThreads();
+		if (threads == null || threads <= 1) {
+			return null;
+		}
+
+		ThreadPoolTaskExecutor taskExecutor = new ThreadPoolTaskExecutor();
+		taskExecutor.setCorePoolSize(threads);
+		taskExecutor.setThreadNamePrefix("peltas-processor-");
+		taskExecutor.setDaemon(true);
+		taskExecutor.initialize();
+		executors.add(taskExecutor);
+		return taskExecutor;
+	}
+
+	protected String getPartitionApplicationName(String applicationName, int partition) {
+		return applicationName + "-" + partition;
+	}
+
+	/**
+	 * The transactions from the application checkpoint to the last transaction of
+	 * the repository are split in equal ranges the first time the partitions
+	 * start, the first partition continuing from the application checkpoint. The
+	 * ranges are kept in the {@value #PARTITIONS_SUFFIX} checkpoint of the
+	 * application, every partition then resumes from its own checkpoint.
+	 * 
+	 * @return the first transaction of every partition
+	 */
+	protected long[] getPartitionFirstTxIds(RestTemplate restTemplate, PeltasProperties properties)
+			throws Exception {
+		String applicationName = properties.getApplication();
+		int count = properties.getPartition().getCount();
+
+		String partitionsName = applicationName + PARTITIONS_SUFFIX;
+		PeltasTimestamp partitions = dataRepository.readTx(partitionsName);
+		if (partitions != null) {
+			long[] firstTxIds = Arrays.stream(StringUtils.commaDelimitedListToStringArray(partitions.getRef()))
+					.mapToLong(Long::parseLong).toArray();
+			if (firstTxIds.length != count) {
+				throw new PeltasException("the transactions of " + applicationName + " are split in "
+						+ firstTxIds.length + " partitions, remove the " + partitionsName
+						+ " checkpoint and the partition checkpoints to use " + count);
+			}
+			return firstTxIds;
+		}
+
+		// the split is stored for good, it cannot fall back to a default max txnId
+		Long repositoryMaxTxId = new AlfrescoWorkspaceRestReader(restTemplate, properties, dataRepository,
+				applicationName).requestMaxTxnId();
+		if (repositoryMaxTxId == null) {
+			throw new PeltasException("the last transaction of the repository could not be requested, the "
+					+ "transactions of " + applicationName + " cannot be split in " + count + " partitions");
+		}
+
+		PeltasTimestamp applicationTimestamp = dataRepository.readTx(applicationName);
+		PeltasCheckpoint checkpoint = PeltasCheckpoint.of(applicationTimestamp);
+		long firstTxId = checkpoint != null && checkpoint.getLastTxnId() != null ? checkpoint.getLastTxnId() : 1;
+		long maxTxId = Math.max(firstTxId, repositoryMaxTxId);
+
+		long rangeSize = (maxTxId - firstTxId) / count + 1;
+		long[] firstTxIds = new long[count];
+		for (int partition = 0; partition < count; partition++) {
+			firstTxIds[partition] = firstTxId + partition * rangeSize;
+		}
+
+		String firstPartitionName = getPartitionApplicationName(applicationName, 0);
+		if (applicationTimestamp != null && dataRepository.readTx(firstPartitionName) == null) {
+			PeltasTimestamp seed = new PeltasTimestamp(firstPartitionName, applicationTimestamp.getRef(), new Date());
+			if (checkpoint != null) {
+				checkpoint.applyTo(seed);
+			}
+			dataRepository.writeTx(seed);
+		}
+
+		String ranges = Arrays.stream(firstTxIds).mapToObj(Long::toString).collect(Collectors.joining(","));
+		LOGGER.info("getPartitionFirstTxIds() {} split up to {} from {}", applicationName, maxTxId, ranges);
+		dataRepository.writeTx(new PeltasTimestamp(partitionsName, ranges, new Date()));
+		return firstTxIds;
+	}
+
+	/**
+	 * @param lastTxId null for the last partition, following the repository
+	 */
+	protected ItemReader<PeltasEntry> createPartitionReader(RestTemplate restTemplate, PeltasProperties properties,
+			String applicationName, long firstTxId, Long lastTxId) throws Exception {
+		AlfrescoWorkspaceRestReader reader = new AlfrescoWorkspaceRestReader(restTemplate, properties, dataRepository,
+				applicationName, firstTxId, lastTxId);
+		reader.afterPropertiesSet();
+		return reader;
+	}
+
+	protected Step createPartitionedStep(StepBuilderFactory stepBuilderFactory, JobRepository jobRepository,
+			List<Step> partitionSteps, PeltasProperties properties) {
+		Integer threads = properties.getPartition().getThreads();
+
+		ThreadPoolTaskExecutor taskExecutor = new ThreadPoolTaskExecutor();
+		taskExecutor.setCorePoolSize(threads != null ? threads : partitionSteps.size());
+		taskExecutor.setThreadNamePrefix("peltas-partition-");
+		taskExecutor.setDaemon(true);
+		taskExecutor.initialize();
+		executors.add(taskExecutor);
+
+		List<Flow> flows = new ArrayList<>();
+		for (Step partitionStep : partitionSteps) {
+			flows.add(new FlowBuilder<Flow>(partitionStep.getName()).start(partitionStep).build());
+		}
+
+		Flow splitFlow = new FlowBuilder<Flow>("peltas-partitions").split(taskExecutor)
+				.add(flows.toArray(new Flow[flows.size()])).build();
+		return stepBuilderFactory.get("peltas").flow(splitFlow).repository(jobRepository).build();
+	}
+
+	@Override
+	public void destroy() {
+		for (ThreadPoolTaskExecutor executor : executors) {
+			executor.shutdown();
+		}
+		executors.clear();
+	}
+
 	@Bean
 	public PeltasFormatUtil peltasFormatUtil() {
 		return new PeltasFormatUtil();
@@ -17,7 +17,6 @@
 package io.peltas.boot;
 
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -34,10 +33,9 @@ import org.springframework.util.StringUtils;
 
 import io.peltas.core.PeltasEntry;
 import io.peltas.core.PeltasException;
-import io.peltas.core.expression.AbstractEvalatorExpression;
 import io.peltas.core.expression.EvaluatorExpressionRegistry;
+import io.peltas.core.expression.PeltasEvaluatorIndex;
 import io.peltas.core.expression.PeltasHandlerProperties;
-import io.peltas.core.integration.PeltasEntryHandler;
 
 @ConfigurationProperties(prefix = "peltas", ignoreInvalidFields = true, ignoreUnknownFields = true)
 public class PeltasHandlerConfigurationProperties {
@@ -50,8 +48,11 @@ public class PeltasHandlerConfigurationProperties {
 
 	private final EvaluatorExpressionRegistry registry;
 
+	private PeltasEvaluatorIndex evaluatorIndex;
+
 	public PeltasHandlerConfigurationProperties(EvaluatorExpressionRegistry registry) {
 		this.registry = registry;
+		this.evaluatorIndex = new PeltasEvaluatorIndex(evaluatorsMap, registry);
 	}
 
 	public void setHandler(Map<String, PeltasHandlerProperties> handler) {
@@ -62,6 +63,8 @@ public class PeltasHandlerConfigurationProperties {
 			String evaluator = entry.getValue().getEvaluator();
 			addEvaluator(evaluator, entry.getKey());
 		}
+
+		evaluatorIndex = new PeltasEvaluatorIndex(evaluatorsMap, registry);
 	}
 
 	private void addEvaluator(String evaluator, String key) {
@@ -75,68 +78,7 @@ public class PeltasHandlerConfigurationProperties {
 
 	// TODO refactor: this method does not belong inhere
 	public String findFirstBestMatchHandler(PeltasEntry auditEntry) {
-		Set<Entry<String, String>> entrySet = evaluatorsMap.entrySet();
-		LinkedMultiValueMap<String, Integer> matchMap = new LinkedMultiValueMap<>();
-		Map<String, Integer> highestEvaluatorRank = new HashMap<>();
-		for (Entry<String, String> evaluatorEntry : entrySet) {
-			List<String> evaluators = new ArrayList<>();
-			String evaluator = evaluatorEntry.getValue();
-			if (evaluator.contains("|")) {
-				String[] evaluatorArray = StringUtils.delimitedListToStringArray(evaluator, "|");
-				evaluators.addAll(Arrays.asList(evaluatorArray));
-			} else {
-				evaluators.add(evaluator);
-			}
-
-			for (String eval : evaluators) {
-				if (eval.contains("=")) {
-					String[] evalKeyVal = StringUtils.delimitedListToStringArray(eval, "=");
-					String evalKeyRight = evalKeyVal[1];
-
-					String[] expressionKeyVal = StringUtils.delimitedListToStringArray(evalKeyRight, "<>");
-					String expression = null;
-					if (expressionKeyVal.length > 1) {
-						expression = expressionKeyVal[0].trim();
-						evalKeyRight = evalKeyRight.replaceFirst(expression + "<>", "").trim();
-					}
-					AbstractEvalatorExpression evaluatorExpression = this.registry.getEvaluatorExpression(expression);
-					if (evaluatorExpression.isValueMapped(evalKeyVal[0], evalKeyRight, auditEntry)) {
-						matchMap.add(evaluatorEntry.getKey(), 1);
-					}
-				} else {
-					// TODO use equals evaluator
-					Object mappedValue = PeltasEntryHandler.getMappedSingleValueProperty(eval, auditEntry);
-					if (mappedValue != null) {
-						matchMap.add(evaluatorEntry.getKey(), 1);
-					}
-				}
-			}
-
-			highestEvaluatorRank.put(evaluatorEntry.getKey(), evaluators.size());
-		}
-
-		Set<Entry<String, List<Integer>>> matchMapSet = matchMap.entrySet();
-		String bestMatchEvaluatorKey = null;
-		Integer bestMatchSize = 0;
-		for (Entry<String, List<Integer>> entry : matchMapSet) {
-			List<Integer> matchList = entry.getValue();
-			if (matchList.size() > bestMatchSize) {
-				bestMatchSize = matchList.size();
-				bestMatchEvaluatorKey = entry.getKey();
-			}
-		}
-
-		if (bestMatchEvaluatorKey != null) {
-			List<Integer> match = matchMap.get(bestMatchEvaluatorKey);
-			if (match != null) {
-				Integer evaluatorSize = highestEvaluatorRank.get(bestMatchEvaluatorKey);
-				if (evaluatorSize == match.size()) {
-					return bestMatchEvaluatorKey;
-				}
-			}
-		}
-
-		return null;
+		return evaluatorIndex.findBestMatchHandler(auditEntry);
 	}
 
 	public PeltasHandlerProperties getForHandler(String handler) {
@@ -147,6 +89,17 @@ public class PeltasHandlerConfigurationProperties {
 		return props;
 	}
 
+	/**
+	 * @return every configured handler, with its handler name set
+	 */
+	public List<PeltasHandlerProperties> getHandlers() {
+		List<PeltasHandlerProperties> handlers = new ArrayList<>(handlerConfigurationMap.size());
+		for (String handler : handlerConfigurationMap.keySet()) {
+			handlers.add(getForHandler(handler));
+		}
+		return handlers;
+	}
+
 	public MultiValueMap<String, String> getEvaluatorConfigurationOccurencies() {
 		Set<Entry<String, String>> entrySet = evaluatorsMap.entrySet();
 
@@ -16,6 +16,9 @@
 
 package io.peltas.boot;
 
+import java.util.HashSet;
+import java.util.Set;
+
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.PropertySource;
 
@@ -37,6 +40,18 @@ public class PeltasProperties {
 
 	private Ssl ssl;
 
+	private Window window = new Window();
+
+	private Reader reader = new Reader();
+
+	private Processor processor = new Processor();
+
+	private Jdbc jdbc = new Jdbc();
+
+	private Partition partition = new Partition();
+
+	private Http http = new Http();
+
 	private Authentication auth = new Authentication(new Authentication.BasicAuth(), null, new Authentication.Header());
 
 	public String getHost() {
@@ -111,6 +126,421 @@ public class PeltasProperties {
 		this.chunksize = chunksize;
 	}
 
+	public Window getWindow() {
+		return window;
+	}
+
+	public void setWindow(Window window) {
+		this.window = window;
+	}
+
+	public Reader getReader() {
+		return reader;
+	}
+
+	public void setReader(Reader reader) {
+		this.reader = reader;
+	}
+
+	public Processor getProcessor() {
+		return processor;
+	}
+
+	public void setProcessor(Processor processor) {
+		this.processor = processor;
+	}
+
+	public Jdbc getJdbc() {
+		return jdbc;
+	}
+
+	public void setJdbc(Jdbc jdbc) {
+		this.jdbc = jdbc;
+	}
+
+	public Partition getPartition() {
+		return partition;
+	}
+
+	public void setPartition(Partition partition) {
+		this.partition = partition;
+	}
+
+	public Http getHttp() {
+		return http;
+	}
+
+	public void setHttp(Http http) {
+		this.http = http;
+	}
+
+	public static class Http {
+
+		/**
+		 * Uses a pooled Apache HttpClient, otherwise a plain JDK connection per
+		 * request.
+		 */
+		private Boolean pooled = true;
+
+		/**
+		 * Maximum number of pooled connections.
+		 */
+		private Integer maxConnections = 50;
+
+		/**
+		 * Maximum number of pooled connections to the same host.
+		 */
+		private Integer maxConnectionsPerRoute = 20;
+
+		/**
+		 * Connect timeout in milliseconds.
+		 */
+		private Integer connectTimeout = 5000;
+
+		/**
+		 * Read (socket) timeout in milliseconds, 0 waits forever. Large /metadata
+		 * windows can take minutes to answer.
+		 */
+		private Integer readTimeout = 0;
+
+		/**
+		 * Timeout in milliseconds waiting for a pooled connection.
+		 */
+		private Integer connectionRequestTimeout = 5000;
+
+		/**
+		 * How long in milliseconds an idle connection is kept alive when the server
+		 * does not send a Keep-Alive timeout.
+		 */
+		private Long keepAlive = 30000L;
+
+		/**
+		 * Requests gzip/deflate compressed responses.
+		 */
+		private Boolean compression = true;
+
+		public Boolean getPooled() {
+			return pooled;
+		}
+
+		public void setPooled(Boolean pooled) {
+			this.pooled = pooled;
+		}
+
+		public Integer getMaxConnections() {
+			return maxConnections;
+		}
+
+		public void setMaxConnections(Integer maxConnections) {
+			this.maxConnections = maxConnections;
+		}
+
+		public Integer getMaxConnectionsPerRoute() {
+			return maxConnectionsPerRoute;
+		}
+
+		public void setMaxConnectionsPerRoute(Integer maxConnectionsPerRoute) {
+			this.maxConnectionsPerRoute = maxConnectionsPerRoute;
+		}
+
+		public Integer getConnectTimeout() {
+			return connectTimeout;
+		}
+
+		public void setConnectTimeout(Integer connectTimeout) {
+			this.connectTimeout = connectTimeout;
+		}
+
+		public Integer getReadTimeout() {
+			return readTimeout;
+		}
+
+		public void setReadTimeout(Integer readTimeout) {
+			this.readTimeout = readTimeout;
+		}
+
+		public Integer getConnectionRequestTimeout() {
+			return connectionRequestTimeout;
+		}
+
+		public void setConnectionRequestTimeout(Integer connectionRequestTimeout) {
+			this.connectionRequestTimeout = connectionRequestTimeout;
+		}
+
+		public Long getKeepAlive() {
+			return keepAlive;
+		}
+
+		public void setKeepAlive(Long keepAlive) {
+			this.keepAlive = keepAlive;
+		}
+
+		public Boolean getCompression() {
+			return compression;
+		}
+
+		public void setCompression(Boolean compression) {
+			this.compression = compression;
+		}
+	}
+
+	public static class Processor {
+
+		/**
+		 * Number of threads evaluating and mapping the items of a chunk
+		 * concurrently, the items are written in their read order. 1 processes them
+		 * on the step thread.
+		 */
+		private Integer threads = 1;
+
+		public Integer getThreads() {
+			return threads;
+		}
+
+		public void setThreads(Integer threads) {
+			this.threads = threads;
+		}
+	}
+
+	public static class Partition {
+
+		/**
+		 * Number of transaction ranges read concurrently, each with its own
+		 * checkpoint. The transactions from the application checkpoint to the last
+		 * one are split when the partitions first start, the last range follows the
+		 * repository. Changing it requires resetting the partition checkpoints. 1
+		 * runs the single threaded step.
+		 */
+		private Integer count = 1;
+
+		/**
+		 * Number of threads running the partitions, defaults to the partition count.
+		 */
+		private Integer threads;
+
+		public Integer getCount() {
+			return count;
+		}
+
+		public void setCount(Integer count) {
+			this.count = count;
+		}
+
+		public Integer getThreads() {
+			return threads;
+		}
+
+		public void setThreads(Integer threads) {
+			this.threads = threads;
+		}
+	}
+
+	public static class Jdbc {
+
+		/**
+		 * Groups the statements of the same execution within a chunk and sends them
+		 * with a single JDBC batch. Applied to a PeltasJdbcWriter writer. Only
+		 * executions neither starting with SELECT nor containing RETURNING are
+		 * batched, as the result row of such statements is added to the parameters
+		 * of the following executions; pipelines whose execution files all return a
+		 * row keep running one statement at a time.
+		 */
+		private Boolean batch = false;
+
+		/**
+		 * Executions always run one statement at a time, e.g. the ones whose
+		 * RETURNING result is used by a later execution of the pipeline.
+		 */
+		private Set<String> nonBatchedExecutions = new HashSet<>();
+
+		/**
+		 * Fails on startup when an execution of a handler pipeline has no execution
+		 * file.
+		 */
+		private Boolean validateExecutions = true;
+
+		public Boolean getBatch() {
+			return batch;
+		}
+
+		public void setBatch(Boolean batch) {
+			this.batch = batch;
+		}
+
+		public Set<String> getNonBatchedExecutions() {
+			return nonBatchedExecutions;
+		}
+
+		public void setNonBatchedExecutions(Set<String> nonBatchedExecutions) {
+			this.nonBatchedExecutions = nonBatchedExecutions;
+		}
+
+		public Boolean getValidateExecutions() {
+			return validateExecutions;
+		}
+
+		public void setValidateExecutions(Boolean validateExecutions) {
+			this.validateExecutions = validateExecutions;
+		}
+	}
+
+	public static class Reader {
+
+		/**
+		 * Number of transaction windows fetched ahead on a background thread while
+		 * the current chunk is processed and written, 0 disables the read-ahead.
+		 */
+		private Integer prefetch = 0;
+
+		/**
+		 * Converts the /metadata nodes while the response is read instead of binding
+		 * the whole response first. The entries of a window are still held in memory
+		 * until it is written, the window size bounds them.
+		 */
+		private Boolean streaming = false;
+
+		/**
+		 * Maximum number of node ids sent in a single /metadata request, 0 sends the
+		 * whole window at once.
+		 */
+		private Integer metadataBatchSize = 0;
+
+		/**
+		 * Number of /metadata requests of the same window executed concurrently.
+		 */
+		private Integer metadataParallelism = 1;
+
+		/**
+		 * Caches the max transaction id, backs off while there is nothing new and
+		 * jumps empty windows straight to the next existing transaction.
+		 */
+		private Boolean tailFollow = false;
+
+		/**
+		 * How long in milliseconds the max transaction id is cached in tail-follow
+		 * mode.
+		 */
+		private Long maxTxnIdTtl = 10000L;
+
+		/**
+		 * First idle period in milliseconds once the reader caught up, doubled on
+		 * every empty read.
+		 */
+		private Long idleBackoffMin = 1000L;
+
+		/**
+		 * Longest idle period in milliseconds once the reader caught up.
+		 */
+		private Long idleBackoffMax = 60000L;
+
+		public Integer getPrefetch() {
+			return prefetch;
+		}
+
+		public void setPrefetch(Integer prefetch) {
+			this.prefetch = prefetch;
+		}
+
+		public Boolean getStreaming() {
+			return streaming;
+		}
+
+		public void setStreaming(Boolean streaming) {
+			this.streaming = streaming;
+		}
+
+		public Integer getMetadataBatchSize() {
+			return metadataBatchSize;
+		}
+
+		public void setMetadataBatchSize(Integer metadataBatchSize) {
+			this.metadataBatchSize = metadataBatchSize;
+		}
+
+		public Integer getMetadataParallelism() {
+			return metadataParallelism;
+		}
+
+		public void setMetadataParallelism(Integer metadataParallelism) {
+			this.metadataParallelism = metadataParallelism;
+		}
+
+		public Boolean getTailFollow() {
+			return tailFollow;
+		}
+
+		public void setTailFollow(Boolean tailFollow) {
+			this.tailFollow = tailFollow;
+		}
+
+		public Long getMaxTxnIdTtl() {
+			return maxTxnIdTtl;
+		}
+
+		public void setMaxTxnIdTtl(Long maxTxnIdTtl) {
+			this.maxTxnIdTtl = maxTxnIdTtl;
+		}
+
+		public Long getIdleBackoffMin() {
+			return idleBackoffMin;
+		}
+
+		public void setIdleBackoffMin(Long idleBackoffMin) {
+			this.idleBackoffMin = idleBackoffMin;
+		}
+
+		public Long getIdleBackoffMax() {
+			return idleBackoffMax;
+		}
+
+		public void setIdleBackoffMax(Long idleBackoffMax) {
+			this.idleBackoffMax = idleBackoffMax;
+		}
+	}
+
+	public static class Window {
+
+		/**
+		 * Minimum number of transactions requested at once, also the initial size.
+		 */
+		private Long min = 5L;
+
+		/**
+		 * Maximum number of transactions requested at once.
+		 */
+		private Long max = 1000L;
+
+		/**
+		 * Number of chunks a single window should yield, the window shrinks when it
+		 * returns more than chunksize * targetChunks nodes.
+		 */
+		private Integer targetChunks = 10;
+
+		public Long getMin() {
+			return min;
+		}
+
+		public void setMin(Long min) {
+			this.min = min;
+		}
+
+		public Long getMax() {
+			return max;
+		}
+
+		public void setMax(Long max) {
+			this.max = max;
+		}
+
+		public Integer getTargetChunks() {
+			return targetChunks;
+		}
+
+		public void setTargetChunks(Integer targetChunks) {
+			this.targetChunks = targetChunks;
+		}
+	}
+
 	public static class Ssl {
 
 		private String trustStore;
@@ -0,0 +1,129 @@
+/**
+ * Copyright 2019 Pleo Soft d.o.o. (pleosoft.com)
+
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.peltas.core;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.util.CollectionUtils;
+import org.springframework.util.StringUtils;
+
+/**
+ * Flattens nested maps, collections and arrays into a single map with a.b and
+ * a[0] keys, the keys the flattening ObjectToMapTransformer produces. The values
+ * are taken as they are instead of being written to JSON and read back. The
+ * nested keys are cached up to a maximum number of keys in total, keys past it
+ * are concatenated on every call.
+ */
+public class MapFlattener {
+
+	public static final int DEFAULT_MAX_SIZE = 10000;
+
+	private final Map<String, Map<Object, String>> paths = new ConcurrentHashMap<>();
+	private final AtomicInteger cachedKeys = new AtomicInteger();
+	private final int maxSize;
+
+	public MapFlattener() {
+		this(DEFAULT_MAX_SIZE);
+	}
+
+	public MapFlattener(int maxSize) {
+		this.maxSize = maxSize;
+	}
+
+	public Map<String, Object> flatten(Map<?, ?> source) {
+		Map<String, Object> target = new HashMap<>();
+		for (Entry<?, ?> entry : source.entrySet()) {
+			flatten(String.valueOf(entry.getKey()), entry.getValue(), target);
+		}
+		return target;
+	}
+
+	/**
+	 * Adds the value to the target under the given key, or its flattened entries
+	 * under keys starting with it when it is a map, a collection or an array.
+	 */
+	public void flatten(String key, Object value, Map<String, Object> target) {
+		if (value instanceof Map) {
+			for (Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+				flatten(childKey(key, String.valueOf(entry.getKey())), entry.getValue(), target);
+			}
+		} else if (value instanceof Collection) {
+			flattenCollection(key, (Collection<?>) value, target);
+		} else if (value != null && value.getClass().isArray()) {
+			flattenCollection(key, CollectionUtils.arrayToList(value), target);
+		} else {
+			target.put(key, value);
+		}
+	}
+
+	private void flattenCollection(String key, Collection<?> collection, Map<String, Object> target) {
+		int index = 0;
+		for (Object element : collection) {
+			flatten(childKey(key, index++), element, target);
+		}
+	}
+
+	/**
+	 * @param child the String key of a map entry or the Integer index of a
+	 *              collection element
+	 */
+	private String childKey(String key, Object child) {
+		Map<Object, String> children = paths.get(key);
+		if (children != null) {
+			String childKey = children.get(child);
+			if (childKey != null) {
+				return childKey;
+			}
+		}
+
+		String childKey = concat(key, child);
+		if (cachedKeys.get() < maxSize) {
+			// the slot is taken before the key is added, so concurrent callers cannot
+			// cache more than maxSize keys
+			if (cachedKeys.incrementAndGet() <= maxSize) {
+				if (children == null) {
+					children = paths.computeIfAbsent(key, k -> new ConcurrentHashMap<>());
+				}
+				if (children.putIfAbsent(child, childKey) == null) {
+					return childKey;
+				}
+			}
+			cachedKeys.decrementAndGet();
+		}
+		return childKey;
+	}
+
+	private static String concat(String key, Object child) {
+		if (child instanceof Integer) {
+			return key + "[" + child + "]";
+		}
+		// like the transformer, no separator after a blank key
+		return StringUtils.hasText(key) ? key + "." + child : key + child;
+	}
+
+	/**
+	 * @return the number of cached keys
+	 */
+	public int size() {
+		return cachedKeys.get();
+	}
+}
@@ -18,7 +18,9 @@ package io.peltas.core;
 
 import java.io.Serializable;
 import java.sql.Timestamp;
+import java.util.HashMap;
 import java.util.Map;
+import java.util.function.BiFunction;
 
 import com.fasterxml.jackson.annotation.JsonAlias;
 import com.fasterxml.jackson.databind.annotation.JsonSerialize;
@@ -43,6 +45,8 @@ public class PeltasEntry implements Serializable {
 	@JsonAlias({ "values" })
 	private Map<String, Object> values;
 
+	private transient Map<String, Map<String, Object>> resolved;
+
 	public String getUser() {
 		return user;
 	}
@@ -57,6 +61,33 @@ public class PeltasEntry implements Serializable {
 
 	public void setValues(Map<String, Object> values) {
 		this.values = values;
+		this.resolved = null;
+	}
+
+	/**
+	 * Resolves a value derived from the entry values once and returns the cached
+	 * one afterwards, null included. An entry is evaluated and mapped by a single
+	 * thread, the cache is not synchronized.
+	 * 
+	 * @param namespace separates the values derived differently from the same key
+	 */
+	@SuppressWarnings("unchecked")
+	public <T> T resolve(String namespace, String key, BiFunction<PeltasEntry, String, T> resolver) {
+		if (resolved == null) {
+			resolved = new HashMap<>();
+		}
+
+		Map<String, Object> namespaceValues = resolved.get(namespace);
+		if (namespaceValues == null) {
+			namespaceValues = new HashMap<>();
+			resolved.put(namespace, namespaceValues);
+		} else if (namespaceValues.containsKey(key)) {
+			return (T) namespaceValues.get(key);
+		}
+
+		T value = resolver.apply(this, key);
+		namespaceValues.put(key, value);
+		return value;
 	}
 
 	public String getId() {
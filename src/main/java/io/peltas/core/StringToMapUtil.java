@@ -21,7 +21,6 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 
 import org.springframework.util.StringUtils;
 
@@ -33,91 +32,71 @@ public class StringToMapUtil {
 	public static final char ARRAY_END = ']';
 	public static final char WHITESPACE = ' ';
 
+	private static final String NULL = "null";
+
 	/**
 	 * a map conversion of a map.toString() string result jsonString should starts
 	 * with { and ends with } like: {key=val, key2=val2}
 	 * 
+	 * The input is scanned once and never copied, keys and values are extracted
+	 * by index. Objects and arrays are kept as strings.
+	 * 
 	 * @param inputString string starting with { or [ and ending with } or ]
 	 *                    respectively
 	 * @param delimiter   the delimiter used to find a map entry (key delimiter)
 	 * @return a map representation of the inputString
 	 */
-	static public Map<String, Object> stringToMap(final String inputString, final char delimiter) {
+	static public HashMap<String, Object> stringToMap(final CharSequence inputString, final char delimiter) {
 		if (!StringUtils.hasText(inputString)) {
 			throw new IllegalArgumentException("the string provided cannot be empty");
 		}
 
-		if (!inputString.startsWith("{") && !inputString.endsWith("}")) {
+		final int length = inputString.length();
+		if (MAP_BEGIN != inputString.charAt(0) && MAP_END != inputString.charAt(length - 1)) {
 			throw new IllegalArgumentException("the string provided is not a map representation");
 		}
 
 		final HashMap<String, Object> map = new HashMap<>();
 
-		String formated = inputString.substring(1, inputString.length() - 1);
+		// the content between the braces
+		final int from = 1;
+		final int to = Math.max(from, length - 1);
 
-		int currentKeyStartIndex = 0;
-		for (int i = 0; i < formated.length(); i++) {
-			char currentChar = formated.charAt(i);
+		int currentKeyStartIndex = from;
+		for (int i = from; i < to; i++) {
+			char currentChar = inputString.charAt(i);
 
-			if (' ' == currentChar) {
+			if (WHITESPACE == currentChar) {
 				currentKeyStartIndex = i;
 			}
 
 			if ('=' == currentChar) {
 				// key is on the left
-				String key = formated.substring(currentKeyStartIndex, i);
-				Object value = null;
+				final int keyEnd = i;
 
-				for (++i; i < formated.length(); i++) {
-					currentChar = formated.charAt(i);
+				for (++i; i < to; i++) {
+					currentChar = inputString.charAt(i);
 					if (WHITESPACE == currentChar) {
 						// TODO first non empty char (tab, space ...)
 						continue;
 					}
 
-					if (MAP_BEGIN == currentChar) {
-						// it is an object => map
-						// find the end '}'
-						int end = findMapValue(formated, i, MAP_BEGIN, MAP_END);
-						value = formated.substring(i, ++end).trim();
-						i = end;
-//						if (ObjectUtils.isEmpty(value)) {
-//							// not an object find the first delimiter
-//							for (++i; i < formated.length(); i++) {
-//								currentChar = formated.charAt(i);
-//								if (delimiter == currentChar) {
-//									value = formated.substring(k, i++).trim();
-//									break;
-//								}
-//							}
-//						}
-					} else if (ARRAY_BEGIN == currentChar) {
-						// it is an array = > list
-						// find the end ']'
-
-						int end = findMapValue(formated, i, ARRAY_BEGIN, ARRAY_END);
-						value = formated.substring(i, ++end).trim();
-
-						i = end;
-						// value = stringToMap(v, delimiter);
-
-//						if (ObjectUtils.isEmpty(value)) {
-//							value = valueAsList(value, delimiter);
-//						}
+					final int valueStart = i;
+					final int valueEnd;
+					if (MAP_BEGIN == currentChar || ARRAY_BEGIN == currentChar) {
+						// it is an object => map or an array => list, find the matching end
+						int end = findMapValue(inputString, i, to, currentChar,
+								MAP_BEGIN == currentChar ? MAP_END : ARRAY_END);
+						valueEnd = Math.min(end + 1, to);
+						i = end + 1;
 					} else {
-						// it is the value
-						// find the end ','
-
-						int end = findMapValue(formated, i, ' ', delimiter);
-						value = formated.substring(i, end++).trim();
-						i = end;
+						// it is the value, find the end ','
+						int end = findMapValue(inputString, i, to, WHITESPACE, delimiter);
+						valueEnd = end;
+						i = end + 1;
 					}
 
-					if ("null".equals(value)) {
-						value = null;
-					}
-
-					map.put(key.trim(), value);
+					addEntry(map, inputString, currentKeyStartIndex, keyEnd, valueStart, valueEnd);
 					break;
 				}
 
@@ -128,22 +107,68 @@ public class StringToMapUtil {
 		return map;
 	}
 
+	private static void addEntry(HashMap<String, Object> map, CharSequence chars, int keyStart, int keyEnd,
+			int valueStart, int valueEnd) {
+		String key = trimmedString(chars, keyStart, keyEnd);
+
+		while (valueStart < valueEnd && chars.charAt(valueStart) <= WHITESPACE) {
+			valueStart++;
+		}
+		while (valueEnd > valueStart && chars.charAt(valueEnd - 1) <= WHITESPACE) {
+			valueEnd--;
+		}
+
+		if (isNull(chars, valueStart, valueEnd)) {
+			map.put(key, null);
+		} else {
+			map.put(key, chars.subSequence(valueStart, valueEnd).toString());
+		}
+	}
+
+	private static boolean isNull(CharSequence chars, int start, int end) {
+		if (end - start != NULL.length()) {
+			return false;
+		}
+		for (int i = 0; i < NULL.length(); i++) {
+			if (chars.charAt(start + i) != NULL.charAt(i)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * @return the characters between start and end without the leading and
+	 *         trailing whitespace, the same as {@link String#trim()}
+	 */
+	private static String trimmedString(CharSequence chars, int start, int end) {
+		while (start < end && chars.charAt(start) <= WHITESPACE) {
+			start++;
+		}
+		while (end > start && chars.charAt(end - 1) <= WHITESPACE) {
+			end--;
+		}
+		return chars.subSequence(start, end).toString();
+	}
+
 	/**
 	 * 
 	 * @param string
 	 * @param i
+	 * @param to     the end of the range to search
 	 * @param first  if ' ' than only one last is exepcted
 	 * @param last
 	 * @return the index of the string's map value end char
 	 */
-	private static int findMapValue(final String string, int i, final char first, final char last) {
+	private static int findMapValue(final CharSequence string, int i, final int to, final char first,
+			final char last) {
 		int found = 0;
 
 		if (first == WHITESPACE) {
 			found = 1;
 		}
 
-		for (; i < string.length(); i++) {
+		for (; i < to; i++) {
 			char currentChar = string.charAt(i);
 
 			if (first != WHITESPACE && first == currentChar) {
@@ -162,25 +187,37 @@ public class StringToMapUtil {
 		return i;
 	}
 
-	// TODO: should be refactored during the changes of arrays/object(map) handling
 	static public List<Object> valueAsList(final Object value) {
 		return valueAsList(value, ',');
 	}
 
 	// TODO: should be refactored during the changes of arrays/object(map) handling
 	static public List<Object> valueAsList(final Object value, final char delimiter) {
-		if (value == null || "null".equals(value)) {
+		if (value == null || NULL.equals(value)) {
 			return Collections.emptyList();
 		}
 
 		List<Object> values = new ArrayList<>();
-		if (value instanceof String) {
-			String tmp = ((String) value).trim();
-			String[] array = StringUtils.delimitedListToStringArray((tmp.substring(1, tmp.length() - 1)),
-					String.valueOf(delimiter));
+		if (value instanceof CharSequence) {
+			CharSequence chars = (CharSequence) value;
+			int start = 0;
+			int end = chars.length();
+			while (start < end && chars.charAt(start) <= WHITESPACE) {
+				start++;
+			}
+			while (end > start && chars.charAt(end - 1) <= WHITESPACE) {
+				end--;
+			}
 
-			for (String v : array) {
-				values.add(v.trim());
+			// without the enclosing brackets, every element is extracted once
+			start++;
+			end--;
+			int elementStart = start;
+			for (int i = start; i <= end && start < end; i++) {
+				if (i == end || chars.charAt(i) == delimiter) {
+					values.add(trimmedString(chars, elementStart, i));
+					elementStart = i + 1;
+				}
 			}
 		} else if (value instanceof Collection) {
 			values.addAll(((Collection<?>) value));
@@ -56,6 +56,14 @@ public abstract class AbstractPeltasRestReader<R> extends PeltasItemReader {
 
 	@Override
 	protected void onOpen() {
+		setList(fetchCollection());
+	}
+
+	/**
+	 * Executes the configured request and converts the response, without touching
+	 * the reader buffer.
+	 */
+	protected List<PeltasEntry> fetchCollection() {
 		@SuppressWarnings("unchecked")
 		Class<R> responseClass = (Class<R>) ((ParameterizedType) getClass().getGenericSuperclass())
 				.getActualTypeArguments()[0];
@@ -68,8 +76,7 @@ public abstract class AbstractPeltasRestReader<R> extends PeltasItemReader {
 		R entries = response.getBody();
 		entries = onResponseReceived(entries);
 
-		List<PeltasEntry> collection = retreiveCollection(entries);
-		setList(collection);
+		return retreiveCollection(entries);
 	}
 
 	abstract protected List<PeltasEntry> retreiveCollection(R response);
@@ -5,17 +5,76 @@ import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
+import java.util.TreeSet;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.batch.item.ItemWriter;
 
+import io.peltas.core.PeltasException;
+import io.peltas.core.expression.PeltasHandlerProperties;
+import io.peltas.core.expression.Pipeline;
 import io.peltas.core.expression.PipelineCollection;
+import io.peltas.core.metrics.PeltasMetrics;
 
 public class PeltasExecutionItemWriter<I, C> implements ItemWriter<PeltasDataHolder> {
 
 	private static final Logger LOGGER = LoggerFactory.getLogger(PeltasExecutionItemWriter.class);
 
+	protected PeltasMetrics metrics = PeltasMetrics.NOOP;
+
+	public PeltasMetrics getMetrics() {
+		return metrics;
+	}
+
+	public void setMetrics(PeltasMetrics metrics) {
+		this.metrics = metrics;
+	}
+
+	/**
+	 * Fails when an execution of the handler pipelines, the collection executions
+	 * included, is unknown to the writer, instead of failing with the first item
+	 * using it.
+	 */
+	public void validateExecutions(Collection<PeltasHandlerProperties> handlers) {
+		Set<String> missing = new TreeSet<>();
+		for (PeltasHandlerProperties handler : handlers) {
+			Pipeline pipeline = handler.getPipeline();
+			if (pipeline == null) {
+				continue;
+			}
+
+			addMissingExecutions(pipeline.getExecutions(), missing);
+			if (pipeline.getCollections() != null) {
+				for (PipelineCollection collection : pipeline.getCollections().values()) {
+					addMissingExecutions(collection.getExecutions(), missing);
+				}
+			}
+		}
+
+		if (!missing.isEmpty()) {
+			throw new PeltasException("Execution files must be setup for " + missing);
+		}
+	}
+
+	private void addMissingExecutions(List<String> executions, Set<String> missing) {
+		if (executions != null) {
+			for (String executionKey : executions) {
+				if (!hasExecution(executionKey)) {
+					missing.add(executionKey);
+				}
+			}
+		}
+	}
+
+	/**
+	 * @return whether the writer can run the execution, true unless the writer
+	 *         knows its executions upfront
+	 */
+	protected boolean hasExecution(String executionKey) {
+		return true;
+	}
+
 	public void beforeExecution() {
 	};
 
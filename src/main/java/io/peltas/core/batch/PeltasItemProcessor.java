@@ -41,6 +41,7 @@ import io.peltas.core.PeltasException;
 import io.peltas.core.expression.PeltasHandlerProperties;
 import io.peltas.core.integration.DoNotProcessHandler;
 import io.peltas.core.integration.PeltasEntryHandler;
+import io.peltas.core.metrics.PeltasMetrics;
 
 public abstract class PeltasItemProcessor implements ItemProcessor<PeltasEntry, PeltasDataHolder> {
 
@@ -54,6 +55,10 @@ public abstract class PeltasItemProcessor implements ItemProcessor<PeltasEntry,
 
 	protected ChunkContext currentChunkContext;
 
+	private PeltasMetrics metrics = PeltasMetrics.NOOP;
+	private long chunkStart;
+	private long chunkWritten;
+
 	public PeltasItemProcessor(PeltasEntryHandler handler, PeltasHandlerConfigurationProperties handlerProperties,
 			boolean expectionOnNoMatch, DoNotProcessHandler doNotProcessHandler,
 			PeltasListenerAdapter peltasListenerAdapter) {
@@ -71,7 +76,9 @@ public abstract class PeltasItemProcessor implements ItemProcessor<PeltasEntry,
 		}
 
 		LOGGER.trace("handleMessage() {}", item);
+		long matchStart = System.nanoTime();
 		String bestMatchHandler = handlerProperties.findFirstBestMatchHandler(item);
+		metrics.recordMatch(getCurrentApplicationName(), bestMatchHandler != null, matchStart);
 		LOGGER.trace("handleMessage() best match handler {}", bestMatchHandler);
 
 		if (bestMatchHandler == null) {
@@ -98,6 +105,19 @@ public abstract class PeltasItemProcessor implements ItemProcessor<PeltasEntry,
 		}
 	}
 
+	public String getCurrentApplicationName() {
+		return getClass().getSimpleName();
+	}
+
+	public PeltasMetrics getMetrics() {
+		return metrics;
+	}
+
+	public void setMetrics(PeltasMetrics metrics) {
+		this.metrics = metrics;
+		handler.setMetrics(metrics);
+	}
+
 	protected void onItemSkipped(PeltasEntry item, PeltasDataHolder payload) {
 	}
 
@@ -115,6 +135,8 @@ public abstract class PeltasItemProcessor implements ItemProcessor<PeltasEntry,
 	@BeforeChunk
 	final public void beforeChunk(ChunkContext context) {
 		currentChunkContext = context;
+		chunkStart = System.nanoTime();
+		chunkWritten = 0;
 		onBeforeChunk(context);
 		peltasListenerAdapter.onBeforeChunk(currentChunkContext);
 	}
@@ -126,6 +148,13 @@ public abstract class PeltasItemProcessor implements ItemProcessor<PeltasEntry,
 	final public void afterChunk(ChunkContext context) {
 		onAfterChunk(context);
 		peltasListenerAdapter.onAfterChunk(context);
+
+		// the chunk transaction commits between the last write listener and this one
+		String applicationName = getCurrentApplicationName();
+		metrics.recordChunk(applicationName, chunkStart);
+		if (chunkWritten > 0) {
+			metrics.recordChunkCommit(applicationName, chunkWritten);
+		}
 	}
 
 	protected void onAfterChunk(ChunkContext context) {
@@ -173,6 +202,7 @@ public abstract class PeltasItemProcessor implements ItemProcessor<PeltasEntry,
 	final public void afterWrite(List<PeltasDataHolder> items) {
 		onAfterWrite(items, currentChunkContext);
 		peltasListenerAdapter.onAfterWrite(items, currentChunkContext);
+		chunkWritten = System.nanoTime();
 	}
 
 	protected void onAfterWrite(List<PeltasDataHolder> items, ChunkContext currentChunkContext2) {
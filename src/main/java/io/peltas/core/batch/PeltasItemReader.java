@@ -16,7 +16,7 @@
 
 package io.peltas.core.batch;
 
-import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 import org.springframework.batch.item.support.AbstractItemCountingItemStreamItemReader;
@@ -25,7 +25,8 @@ import io.peltas.core.PeltasEntry;
 
 public class PeltasItemReader extends AbstractItemCountingItemStreamItemReader<PeltasEntry> {
 
-	private final List<PeltasEntry> list = new ArrayList<>();
+	private List<PeltasEntry> list = Collections.emptyList();
+	private int position = 0;
 	private final String applicationName;
 
 	protected int lastCount = 0;
@@ -47,8 +48,8 @@ public class PeltasItemReader extends AbstractItemCountingItemStreamItemReader<P
 
 	@Override
 	protected PeltasEntry doRead() throws Exception {
-		if (!list.isEmpty()) {
-			PeltasEntry entry = list.remove(0);
+		if (position < list.size()) {
+			PeltasEntry entry = list.get(position++);
 			onRead(entry);
 			return entry;
 		}
@@ -56,11 +57,13 @@ public class PeltasItemReader extends AbstractItemCountingItemStreamItemReader<P
 		return null;
 	}
 
+	/**
+	 * Hands the entries over to the reader without copying them, the list must
+	 * not be modified by the caller afterwards.
+	 */
 	protected void setList(List<PeltasEntry> list) {
-		this.list.clear();
-		if (list != null) {
-			this.list.addAll(list);
-		}
+		this.list = list != null ? list : Collections.emptyList();
+		this.position = 0;
 		lastCount = this.list.size();
 		setCurrentItemCount(0);
 		setMaxItemCount(lastCount > 0 ? lastCount : 1);
@@ -0,0 +1,97 @@
+/**
+ * Copyright 2019 Pleo Soft d.o.o. (pleosoft.com)
+
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.peltas.core.batch;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+import org.springframework.batch.core.StepContribution;
+import org.springframework.batch.core.step.item.Chunk;
+import org.springframework.batch.core.step.item.SimpleChunkProcessor;
+import org.springframework.batch.item.ItemProcessor;
+import org.springframework.batch.item.ItemWriter;
+import org.springframework.core.task.AsyncTaskExecutor;
+
+/**
+ * Processes the items of a chunk concurrently and hands the results to the
+ * writer in the read order. Only {@link ItemProcessor#process} runs on the
+ * executor, the process listeners are called on the step thread: the before
+ * listeners for the whole chunk first, then the after or error listener of
+ * every item in order.
+ */
+public class PeltasParallelChunkProcessor<I, O> extends SimpleChunkProcessor<I, O> {
+
+	private final ItemProcessor<? super I, ? extends O> itemProcessor;
+	private final AsyncTaskExecutor taskExecutor;
+
+	public PeltasParallelChunkProcessor(ItemProcessor<? super I, ? extends O> itemProcessor,
+			ItemWriter<? super O> itemWriter, AsyncTaskExecutor taskExecutor) {
+		super(itemProcessor, itemWriter);
+		this.itemProcessor = itemProcessor;
+		this.taskExecutor = taskExecutor;
+	}
+
+	@Override
+	protected Chunk<O> transform(StepContribution contribution, Chunk<I> inputs) throws Exception {
+		List<Future<? extends O>> results = new ArrayList<>(inputs.size());
+		for (I item : inputs) {
+			getListener().beforeProcess(item);
+			results.add(taskExecutor.submit(() -> itemProcessor.process(item)));
+		}
+
+		Chunk<O> outputs = new Chunk<>();
+		int index = 0;
+		for (Chunk<I>.ChunkIterator iterator = inputs.iterator(); iterator.hasNext();) {
+			I item = iterator.next();
+
+			O output;
+			try {
+				output = results.get(index++).get();
+			} catch (ExecutionException e) {
+				Exception cause = e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+				getListener().onProcessError(item, cause);
+				inputs.clear();
+				awaitRemaining(results, index);
+				throw cause;
+			}
+
+			getListener().afterProcess(item, output);
+			if (output != null) {
+				outputs.add(output);
+			} else {
+				iterator.remove();
+			}
+		}
+		return outputs;
+	}
+
+	/**
+	 * A failed chunk is rolled back and may be processed again, nothing of it may
+	 * still run by then.
+	 */
+	private static void awaitRemaining(List<? extends Future<?>> results, int from) throws InterruptedException {
+		for (int i = from; i < results.size(); i++) {
+			try {
+				results.get(i).get();
+			} catch (ExecutionException e) {
+				// only the first failure in the read order is reported
+			}
+		}
+	}
+}
@@ -28,6 +28,7 @@ import io.peltas.boot.PeltasHandlerConfigurationProperties;
 import io.peltas.core.PeltasEntry;
 import io.peltas.core.integration.DoNotProcessHandler;
 import io.peltas.core.integration.PeltasEntryHandler;
+import io.peltas.core.repository.PeltasCheckpoint;
 import io.peltas.core.repository.TxDataRepository;
 import io.peltas.core.repository.jpa.PeltasTimestamp;
 
@@ -71,9 +72,7 @@ public class PeltasProcessor extends PeltasItemProcessor {
 	public void onBeforeChunk(ChunkContext context) {
 		PeltasTimestamp timestamp = auditRepository.readTx(getCurrentApplicationName());
 		if (timestamp != null) {
-			String[] auditIdSplitted = timestamp.getRef().split(ID_SEPARATOR);
-			Integer nodesCount = nodesCountToInteger(auditIdSplitted[1]);
-			checkNodesCount(nodesCount);
+			checkNodesCount((int) readCheckpoint(timestamp).getProcessedCount());
 		}
 
 		if (counter.get() == 0) {
@@ -92,14 +91,45 @@ public class PeltasProcessor extends PeltasItemProcessor {
 			timestamp = new PeltasTimestamp(getCurrentApplicationName(), newRef, new Date());
 		}
 
-		String[] auditIdSplitted = timestamp.getRef().split(ID_SEPARATOR);
-		Integer nodesCount = nodesCountToInteger(auditIdSplitted[1]);
-		Integer processed = nodesCount + counter.get();
-		// todo use string builder
-		String newRef = getCurrentRef() + ID_SEPARATOR + nodesCountToString(processed);
-		timestamp.setRef(newRef);
+		PeltasCheckpoint checkpoint = (PeltasCheckpoint) currentChunkContext
+				.getAttribute(PeltasCheckpoint.CHUNK_ATTRIBUTE);
+		if (checkpoint == null) {
+			checkpoint = readCheckpoint(timestamp);
+		} else if (timestamp.getProcessedCount() == null) {
+			// the reader cannot parse a custom count format of the legacy ref
+			checkpoint = new PeltasCheckpoint(checkpoint.getLastTxnId(), checkpoint.getLastNodeId(),
+					readCheckpoint(timestamp).getProcessedCount(), checkpoint.getWindowSize());
+		}
+
+		Integer processed = (int) checkpoint.getProcessedCount() + counter.get();
+		PeltasCheckpoint newCheckpoint = createCheckpoint(lastAuditEntry, processed, checkpoint);
+
+		// the ref is still written for the tools reading it
+		timestamp.setRef(getCurrentRef() + ID_SEPARATOR + nodesCountToString(processed));
+		newCheckpoint.applyTo(timestamp);
 		PeltasTimestamp peltasTimestamp = auditRepository.writeTx(timestamp);
 		currentChunkContext.setAttribute("peltasTimestamp", peltasTimestamp != null ? peltasTimestamp : timestamp);
+		currentChunkContext.setAttribute(PeltasCheckpoint.CHUNK_ATTRIBUTE, newCheckpoint);
+	}
+
+	/**
+	 * Reads the stored checkpoint, a timestamp still holding only the legacy ref
+	 * is parsed once and migrated to the checkpoint columns on the next write.
+	 */
+	protected PeltasCheckpoint readCheckpoint(PeltasTimestamp timestamp) {
+		PeltasCheckpoint checkpoint = PeltasCheckpoint.of(timestamp);
+		if (timestamp.getProcessedCount() == null) {
+			String[] auditIdSplitted = timestamp.getRef().split(ID_SEPARATOR);
+			Integer nodesCount = nodesCountToInteger(auditIdSplitted[1]);
+			checkpoint = new PeltasCheckpoint(checkpoint.getLastTxnId(), checkpoint.getLastNodeId(), nodesCount,
+					checkpoint.getWindowSize());
+		}
+		return checkpoint;
+	}
+
+	protected PeltasCheckpoint createCheckpoint(PeltasEntry lastEntry, Integer processed,
+			PeltasCheckpoint previous) {
+		return PeltasCheckpoint.fromEntryId(lastEntry.getId(), processed, previous.getWindowSize());
 	}
 
 	protected String getCurrentRef() {
@@ -114,6 +144,7 @@ public class PeltasProcessor extends PeltasItemProcessor {
 		return Integer.valueOf(nodesCount);
 	}
 
+	@Override
 	public String getCurrentApplicationName() {
 		return peltasListenerAdapter.applicationNameSuffix(applicationName);
 	}
@@ -0,0 +1,66 @@
+/**
+ * Copyright 2019 Pleo Soft d.o.o. (pleosoft.com)
+
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.peltas.core.batch;
+
+import java.util.ArrayList;
+
+import org.springframework.batch.core.step.builder.StepBuilderHelper;
+import org.springframework.batch.core.step.builder.SimpleStepBuilder;
+import org.springframework.batch.core.step.item.ChunkOrientedTasklet;
+import org.springframework.batch.core.step.item.SimpleChunkProvider;
+import org.springframework.batch.core.step.tasklet.Tasklet;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.util.Assert;
+
+/**
+ * A chunk step builder processing the items of a chunk with a
+ * {@link PeltasParallelChunkProcessor} when a task executor is given.
+ */
+public class PeltasStepBuilder<I, O> extends SimpleStepBuilder<I, O> {
+
+	private final AsyncTaskExecutor processorExecutor;
+
+	/**
+	 * @param processorExecutor the executor processing the items, null processes
+	 *                          them on the step thread
+	 */
+	public PeltasStepBuilder(StepBuilderHelper<?> parent, AsyncTaskExecutor processorExecutor) {
+		super(parent);
+		this.processorExecutor = processorExecutor;
+	}
+
+	@Override
+	protected Tasklet createTasklet() {
+		if (processorExecutor == null) {
+			return super.createTasklet();
+		}
+
+		Assert.state(getReader() != null, "ItemReader must be provided");
+		Assert.state(getWriter() != null, "ItemWriter must be provided");
+		Assert.state(getProcessor() != null, "ItemProcessor must be provided");
+
+		SimpleChunkProvider<I> chunkProvider = new SimpleChunkProvider<>(getReader(), createChunkOperations());
+		PeltasParallelChunkProcessor<I, O> chunkProcessor = new PeltasParallelChunkProcessor<>(getProcessor(),
+				getWriter(), processorExecutor);
+		chunkProvider.setListeners(new ArrayList<>(getItemListeners()));
+		chunkProcessor.setListeners(new ArrayList<>(getItemListeners()));
+
+		ChunkOrientedTasklet<I> tasklet = new ChunkOrientedTasklet<>(chunkProvider, chunkProcessor);
+		tasklet.setBuffering(!isReaderTransactionalQueue());
+		return tasklet;
+	}
+}
@@ -0,0 +1,47 @@
+/**
+ * Copyright 2019 Pleo Soft d.o.o. (pleosoft.com)
+
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.peltas.core.converter;
+
+import java.util.Collection;
+
+import org.springframework.core.convert.TypeDescriptor;
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.core.convert.converter.GenericConverter;
+import org.springframework.format.support.DefaultFormattingConversionService;
+
+/**
+ * The default formatting conversion service with the configured converters,
+ * exposing the resolved converter of a conversion so it can be bound once and
+ * invoked directly.
+ */
+public class PeltasConversionService extends DefaultFormattingConversionService {
+
+	public PeltasConversionService(Collection<? extends Converter<?, ?>> converters) {
+		for (Converter<?, ?> converter : converters) {
+			addConverter(converter);
+		}
+	}
+
+	/**
+	 * @return the converter the service would use, or null when the conversion is
+	 *         not supported
+	 */
+	@Override
+	public GenericConverter getConverter(TypeDescriptor sourceType, TypeDescriptor targetType) {
+		return super.getConverter(sourceType, targetType);
+	}
+}
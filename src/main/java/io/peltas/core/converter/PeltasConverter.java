@@ -0,0 +1,43 @@
+/**
+ * Copyright 2019 Pleo Soft d.o.o. (pleosoft.com)
+
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.peltas.core.converter;
+
+import java.util.List;
+
+import org.springframework.core.convert.converter.Converter;
+
+/**
+ * A converter whose result depends on the format and the format keys of the
+ * mapped property. They are passed with every conversion, so a conversion is
+ * reentrant and may run on any thread.
+ */
+public interface PeltasConverter<S, T> extends Converter<S, T> {
+
+	/**
+	 * @param format     the format of the mapped property, may be null
+	 * @param formatKeys the format keys of the mapped property, may be null
+	 */
+	T convert(S source, String format, List<String> formatKeys);
+
+	/**
+	 * Converts without a format, e.g. when called by a ConversionService.
+	 */
+	@Override
+	default T convert(S source) {
+		return convert(source, null, null);
+	}
+}
@@ -0,0 +1,115 @@
+/**
+ * Copyright 2019 Pleo Soft d.o.o. (pleosoft.com)
+
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.peltas.core.converter;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.core.GenericTypeResolver;
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.util.Assert;
+
+/**
+ * The configured converters, looked up by the source and target class of a
+ * conversion. Like a ConversionService the converter source type must be
+ * assignable from the value and the requested target assignable to the
+ * converter target type, the last registered converter wins.
+ */
+public class PeltasConverterRegistry {
+
+	private static final Object NO_CONVERTER = new Object();
+
+	private final List<Registration> registrations = new ArrayList<>();
+	private final Map<Class<?>, Map<Class<?>, Object>> cache = new ConcurrentHashMap<>();
+	private final Map<Class<?>, Map<Class<?>, Boolean>> configuredCache = new ConcurrentHashMap<>();
+
+	public PeltasConverterRegistry(Collection<? extends Converter<?, ?>> converters) {
+		for (Converter<?, ?> converter : converters) {
+			if (converter instanceof PeltasConverter) {
+				Class<?>[] types = GenericTypeResolver.resolveTypeArguments(converter.getClass(),
+						PeltasConverter.class);
+				Assert.notNull(types, "Unable to determine the source and target type of " + converter.getClass());
+				registrations.add(0, new Registration(types[0], types[1], converter));
+			} else {
+				Class<?>[] types = GenericTypeResolver.resolveTypeArguments(converter.getClass(), Converter.class);
+				if (types == null) {
+					// unknown types, such a converter could take part in any conversion
+					types = new Class<?>[] { Object.class, Object.class };
+				}
+				registrations.add(0, new Registration(types[0], types[1], converter));
+			}
+		}
+	}
+
+	/**
+	 * @return the converter of the given classes, or null when the conversion is
+	 *         not a format-aware one
+	 */
+	@SuppressWarnings("unchecked")
+	public PeltasConverter<Object, Object> getConverter(Class<?> sourceType, Class<?> targetType) {
+		Object converter = cache.computeIfAbsent(sourceType, s -> new ConcurrentHashMap<>())
+				.computeIfAbsent(targetType, t -> findConverter(sourceType, targetType));
+		return converter != NO_CONVERTER ? (PeltasConverter<Object, Object>) converter : null;
+	}
+
+	/**
+	 * @return whether any of the configured converters, format-aware or not, can
+	 *         take part in the conversion of the given classes
+	 */
+	public boolean hasConverter(Class<?> sourceType, Class<?> targetType) {
+		return configuredCache.computeIfAbsent(sourceType, s -> new ConcurrentHashMap<>())
+				.computeIfAbsent(targetType, t -> findRegistration(sourceType, targetType) != null);
+	}
+
+	private Object findConverter(Class<?> sourceType, Class<?> targetType) {
+		for (Registration registration : registrations) {
+			if (registration.converter instanceof PeltasConverter && registration.matches(sourceType, targetType)) {
+				return registration.converter;
+			}
+		}
+		return NO_CONVERTER;
+	}
+
+	private Registration findRegistration(Class<?> sourceType, Class<?> targetType) {
+		for (Registration registration : registrations) {
+			if (registration.matches(sourceType, targetType)) {
+				return registration;
+			}
+		}
+		return null;
+	}
+
+	private static class Registration {
+
+		private final Class<?> sourceType;
+		private final Class<?> targetType;
+		private final Converter<?, ?> converter;
+
+		Registration(Class<?> sourceType, Class<?> targetType, Converter<?, ?> converter) {
+			this.sourceType = sourceType;
+			this.targetType = targetType;
+			this.converter = converter;
+		}
+
+		boolean matches(Class<?> sourceType, Class<?> targetType) {
+			return this.sourceType.isAssignableFrom(sourceType) && this.targetType.isAssignableFrom(targetType);
+		}
+	}
+}
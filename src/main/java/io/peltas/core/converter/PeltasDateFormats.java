@@ -0,0 +1,154 @@
+/**
+ * Copyright 2019 Pleo Soft d.o.o. (pleosoft.com)
+
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.peltas.core.converter;
+
+import java.text.DateFormatSymbols;
+import java.text.ParsePosition;
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeFormatterBuilder;
+import java.time.format.DateTimeParseException;
+import java.time.format.TextStyle;
+import java.time.temporal.ChronoField;
+import java.time.temporal.TemporalAccessor;
+import java.time.temporal.TemporalQueries;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.util.Assert;
+import org.springframework.util.StringUtils;
+
+import io.peltas.core.integration.PeltasConversionException;
+
+/**
+ * Parses and formats dates with immutable {@link DateTimeFormatter}s cached per
+ * configured format. Like {@link java.text.SimpleDateFormat#parse(String)}
+ * trailing text is ignored and values without a zone use the system default.
+ */
+public class PeltasDateFormats {
+
+	// old audit
+	static final String LEGACY_FORMAT = "EEE MMM dd HH:mm:ss zzz yyyy";
+	// v1 with an offset, or the same without it
+	static final String ISO_FORMAT = "yyyy-MM-dd'T'HH:mm:ss.SSS[Z]";
+
+	private final Map<String, DateTimeFormatter> parsers = new ConcurrentHashMap<>();
+	private final Map<String, DateTimeFormatter> formatters = new ConcurrentHashMap<>();
+
+	/**
+	 * @param format the configured format, when empty the legacy audit and the v1
+	 *               formats are detected from the value
+	 */
+	public Date parse(String source, String format) {
+		if (!StringUtils.hasText(format)) {
+			format = isLegacyFormat(source) ? LEGACY_FORMAT : ISO_FORMAT;
+		}
+
+		DateTimeFormatter parser = parsers.computeIfAbsent(format, PeltasDateFormats::createParser);
+		try {
+			return toDate(parser.parse(source, new ParsePosition(0)));
+		} catch (DateTimeParseException e) {
+			throw new PeltasConversionException(e);
+		}
+	}
+
+	public String format(Date date, String format) {
+		Assert.hasText(format, "a format is required to convert a date to a string");
+
+		DateTimeFormatter formatter = formatters.computeIfAbsent(format,
+				f -> DateTimeFormatter.ofPattern(f).withZone(ZoneId.systemDefault()));
+		return formatter.format(Instant.ofEpochMilli(date.getTime()));
+	}
+
+	private static DateTimeFormatter createParser(String format) {
+		if (LEGACY_FORMAT.equals(format)) {
+			// an abbreviation such as BST or IST names several zones, prefer the one
+			// SimpleDateFormat resolves it to
+			return new DateTimeFormatterBuilder().appendPattern("EEE MMM dd HH:mm:ss ")
+					.appendZoneText(TextStyle.SHORT, LegacyZones.PREFERRED).appendPattern(" yyyy")
+					.toFormatter(Locale.ENGLISH);
+		}
+		return DateTimeFormatter.ofPattern(format, Locale.ENGLISH);
+	}
+
+	private static boolean isLegacyFormat(String source) {
+		return !source.isEmpty() && Character.isLetter(source.charAt(0));
+	}
+
+	private static Date toDate(TemporalAccessor parsed) {
+		LocalDate date = parsed.query(TemporalQueries.localDate());
+		if (date == null) {
+			// partial dates default like SimpleDateFormat does
+			int year = parsed.isSupported(ChronoField.YEAR) ? parsed.get(ChronoField.YEAR) : 1970;
+			int month = parsed.isSupported(ChronoField.MONTH_OF_YEAR) ? parsed.get(ChronoField.MONTH_OF_YEAR) : 1;
+			date = LocalDate.of(year, month, 1);
+		}
+
+		LocalTime time = parsed.query(TemporalQueries.localTime());
+		if (time == null) {
+			time = LocalTime.MIDNIGHT;
+		}
+
+		ZoneId zone = parsed.query(TemporalQueries.zone());
+		if (zone == null) {
+			zone = ZoneId.systemDefault();
+		}
+
+		return Date.from(ZonedDateTime.of(date, time, zone).toInstant());
+	}
+
+	private static class LegacyZones {
+
+		/**
+		 * The first zone of every abbreviation in the {@link DateFormatSymbols} zone
+		 * strings, the default zone winning over the others.
+		 */
+		static final Set<ZoneId> PREFERRED = createPreferredZones();
+
+		private static Set<ZoneId> createPreferredZones() {
+			Map<String, ZoneId> zones = new HashMap<>();
+			for (String[] zoneStrings : DateFormatSymbols.getInstance(Locale.ENGLISH).getZoneStrings()) {
+				ZoneId zone;
+				try {
+					zone = ZoneId.of(zoneStrings[0], ZoneId.SHORT_IDS);
+				} catch (DateTimeException e) {
+					continue;
+				}
+				// the short standard and daylight names
+				zones.putIfAbsent(zoneStrings[2], zone);
+				zones.putIfAbsent(zoneStrings[4], zone);
+			}
+
+			// the last preferred zone wins when several have the same abbreviation
+			Set<ZoneId> preferred = new LinkedHashSet<>(zones.values());
+			ZoneId defaultZone = ZoneId.systemDefault();
+			preferred.remove(defaultZone);
+			preferred.add(defaultZone);
+			return preferred;
+		}
+	}
+}
@@ -0,0 +1,79 @@
+/**
+ * Copyright 2019 Pleo Soft d.o.o. (pleosoft.com)
+
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.peltas.core.converter;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Translates {namespace}localName keys into their prefix:localName form. The
+ * translations are cached up to a maximum number of keys, keys past it are
+ * translated on every call.
+ */
+public class PrefixStringKeyCache {
+
+	public static final int DEFAULT_MAX_SIZE = 10000;
+
+	// marks keys that are not a QName, so they are not parsed again
+	private static final String NOT_QNAME = new String("");
+
+	private final Map<String, String> cache = new ConcurrentHashMap<>();
+	private final Function<String, String> namespacePrefixResolver;
+	private final int maxSize;
+
+	public PrefixStringKeyCache(Function<String, String> namespacePrefixResolver) {
+		this(namespacePrefixResolver, DEFAULT_MAX_SIZE);
+	}
+
+	public PrefixStringKeyCache(Function<String, String> namespacePrefixResolver, int maxSize) {
+		this.namespacePrefixResolver = namespacePrefixResolver;
+		this.maxSize = maxSize;
+	}
+
+	/**
+	 * @return the prefix:localName form of the key, or null when the key is not a
+	 *         QName
+	 */
+	public String toPrefixString(String key) {
+		String prefixString = cache.get(key);
+		if (prefixString == null) {
+			prefixString = translate(key);
+			if (cache.size() < maxSize) {
+				cache.put(key, prefixString);
+			}
+		}
+
+		return prefixString == NOT_QNAME ? null : prefixString;
+	}
+
+	private String translate(String key) {
+		int namespaceStart = key.indexOf('{');
+		int namespaceEnd = key.lastIndexOf('}');
+		if (namespaceStart < 0 || namespaceEnd < namespaceStart) {
+			return NOT_QNAME;
+		}
+
+		String namespace = key.substring(namespaceStart + 1, namespaceEnd);
+		String prefix = namespacePrefixResolver.apply(namespace);
+		return prefix + ":" + key.substring(namespaceEnd + 1);
+	}
+
+	public int size() {
+		return cache.size();
+	}
+}
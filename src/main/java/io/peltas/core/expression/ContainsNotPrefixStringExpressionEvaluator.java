@@ -16,11 +16,7 @@
 
 package io.peltas.core.expression;
 
-import java.util.List;
-import java.util.Map;
-
 import io.peltas.core.PeltasEntry;
-import io.peltas.core.integration.PeltasEntryHandler;
 
 public class ContainsNotPrefixStringExpressionEvaluator extends AbstractEvalatorExpression {
 	public ContainsNotPrefixStringExpressionEvaluator() {
@@ -29,19 +25,6 @@ public class ContainsNotPrefixStringExpressionEvaluator extends AbstractEvalator
 
 	@Override
 	public boolean isValueMapped(String evaluatorKey, String evaluatorValue, PeltasEntry auditEntry) {
-		List<Object> mappedMultiValueProperty = PeltasEntryHandler.getMappedMultiValueProperty(evaluatorKey,
-				auditEntry);
-		for (Object object : mappedMultiValueProperty) {
-			if (object instanceof Map) {
-				Map<?, ?> map = (Map<?, ?>) object;
-				String prefix = (String) map.get("prefixString");
-				String localName = (String) map.get("localName");
-
-				if (String.format("%s:%s", prefix, localName).equals(evaluatorValue)) {
-					return false;
-				}
-			}
-		}
-		return true;
+		return !PrefixStringResolver.getPrefixStrings(evaluatorKey, auditEntry).contains(evaluatorValue);
 	}
 }
@@ -0,0 +1,210 @@
+/**
+ * Copyright 2019 Pleo Soft d.o.o. (pleosoft.com)
+
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.peltas.core.expression;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import org.springframework.util.StringUtils;
+
+import io.peltas.core.PeltasEntry;
+import io.peltas.core.integration.PeltasEntryHandler;
+
+/**
+ * Immutable matcher built once from the handler evaluators. Every handler with
+ * an equals predicate on a plain key is indexed by that key and value, so an
+ * entry first evaluates the handlers its values can match plus the handlers
+ * without such a predicate. The other handlers are only evaluated while they
+ * could still match more predicates than the best handler so far.
+ */
+public class PeltasEvaluatorIndex {
+
+	private final Map<String, Map<String, List<CompiledHandler>>> equalsIndex;
+	private final List<CompiledHandler> indexedHandlers;
+	private final List<CompiledHandler> unindexedHandlers;
+
+	/**
+	 * @param evaluators the evaluator of every handler, equally ranked handlers
+	 *                   resolve to the first one in iteration order
+	 */
+	public PeltasEvaluatorIndex(Map<String, String> evaluators, EvaluatorExpressionRegistry registry) {
+		Map<String, Map<String, List<CompiledHandler>>> index = new HashMap<>();
+		List<CompiledHandler> indexed = new ArrayList<>();
+		List<CompiledHandler> unindexed = new ArrayList<>();
+
+		int order = 0;
+		for (Entry<String, String> evaluator : evaluators.entrySet()) {
+			CompiledHandler handler = new CompiledHandler(evaluator.getKey(), order++,
+					parse(evaluator.getValue(), registry));
+
+			if (handler.anchor != null) {
+				index.computeIfAbsent(handler.anchor.key, k -> new HashMap<>())
+						.computeIfAbsent(handler.anchor.value, v -> new ArrayList<>()).add(handler);
+				indexed.add(handler);
+			} else {
+				unindexed.add(handler);
+			}
+		}
+		indexed.sort(Comparator.comparingInt((CompiledHandler handler) -> handler.predicates.length).reversed());
+
+		this.equalsIndex = index;
+		this.indexedHandlers = indexed;
+		this.unindexedHandlers = unindexed;
+	}
+
+	/**
+	 * @return the handler matching the most predicates of the entry, the first one
+	 *         when several do, if it matches all of its predicates, otherwise null
+	 */
+	public String findBestMatchHandler(PeltasEntry auditEntry) {
+		BestMatch best = new BestMatch();
+
+		Map<String, Object> values = auditEntry.getValues();
+		if (values != null) {
+			for (Entry<String, Map<String, List<CompiledHandler>>> keyIndex : equalsIndex.entrySet()) {
+				Object value = values.get(keyIndex.getKey());
+				if (value instanceof String) {
+					List<CompiledHandler> candidates = keyIndex.getValue().get(value);
+					if (candidates != null) {
+						for (CompiledHandler candidate : candidates) {
+							best.offer(candidate, candidate.countMatches(auditEntry, null));
+						}
+					}
+				}
+			}
+		}
+
+		for (CompiledHandler handler : unindexedHandlers) {
+			best.offer(handler, handler.countMatches(auditEntry, null));
+		}
+
+		// a handler whose indexed predicate failed matches one predicate less at most
+		for (CompiledHandler handler : indexedHandlers) {
+			int maxMatches = handler.predicates.length - 1;
+			if (maxMatches < best.matches) {
+				break;
+			}
+			if (best.mayBeBeatenBy(handler, maxMatches) && !handler.isAnchorMatched(values)) {
+				best.offer(handler, handler.countMatches(auditEntry, handler.anchor));
+			}
+		}
+
+		return best.handler != null && best.matches == best.handler.predicates.length ? best.handler.name : null;
+	}
+
+	private static class BestMatch {
+
+		private CompiledHandler handler;
+		private int matches;
+
+		boolean mayBeBeatenBy(CompiledHandler other, int otherMatches) {
+			return otherMatches > matches
+					|| (otherMatches == matches && handler != null && other.order < handler.order);
+		}
+
+		void offer(CompiledHandler other, int otherMatches) {
+			if (otherMatches > 0 && mayBeBeatenBy(other, otherMatches)) {
+				handler = other;
+				matches = otherMatches;
+			}
+		}
+	}
+
+	private static List<Predicate> parse(String evaluator, EvaluatorExpressionRegistry registry) {
+		List<Predicate> predicates = new ArrayList<>();
+
+		for (String eval : StringUtils.delimitedListToStringArray(evaluator, "|")) {
+			if (eval.contains("=")) {
+				String[] evalKeyVal = StringUtils.delimitedListToStringArray(eval, "=");
+				String evalKeyRight = evalKeyVal[1];
+
+				String expression = null;
+				int expressionEnd = evalKeyRight.indexOf("<>");
+				if (expressionEnd >= 0) {
+					expression = evalKeyRight.substring(0, expressionEnd).trim();
+					evalKeyRight = evalKeyRight.substring(expressionEnd + 2).trim();
+				}
+
+				predicates.add(
+						new Predicate(evalKeyVal[0], evalKeyRight, registry.getEvaluatorExpression(expression)));
+			} else {
+				predicates.add(new Predicate(eval, null, null));
+			}
+		}
+
+		return Collections.unmodifiableList(predicates);
+	}
+
+	private static class CompiledHandler {
+
+		private final String name;
+		private final int order;
+		private final Predicate[] predicates;
+		private final Predicate anchor;
+
+		CompiledHandler(String name, int order, List<Predicate> predicates) {
+			this.name = name;
+			this.order = order;
+			this.predicates = predicates.toArray(new Predicate[predicates.size()]);
+			this.anchor = predicates.stream().filter(Predicate::isIndexable).findFirst().orElse(null);
+		}
+
+		boolean isAnchorMatched(Map<String, Object> values) {
+			return values != null && anchor.value.equals(values.get(anchor.key));
+		}
+
+		int countMatches(PeltasEntry auditEntry, Predicate failed) {
+			int matches = 0;
+			for (Predicate predicate : predicates) {
+				if (predicate != failed && predicate.matches(auditEntry)) {
+					matches++;
+				}
+			}
+			return matches;
+		}
+	}
+
+	private static class Predicate {
+
+		private final String key;
+		private final String value;
+		private final AbstractEvalatorExpression expression;
+
+		Predicate(String key, String value, AbstractEvalatorExpression expression) {
+			this.key = key;
+			this.value = value;
+			this.expression = expression;
+		}
+
+		boolean isIndexable() {
+			return expression != null && expression.getClass() == EqualsExpressionEvaluator.class && !key.contains("@");
+		}
+
+		boolean matches(PeltasEntry auditEntry) {
+			if (expression == null) {
+				// a predicate without a value only checks that the key is present
+				return PeltasEntryHandler.getMappedSingleValueProperty(key, auditEntry) != null;
+			}
+			return expression.isValueMapped(key, value, auditEntry);
+		}
+	}
+}
@@ -0,0 +1,60 @@
+/**
+ * Copyright 2019 Pleo Soft d.o.o. (pleosoft.com)
+
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.peltas.core.expression;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import io.peltas.core.PeltasEntry;
+import io.peltas.core.integration.PeltasEntryHandler;
+
+/**
+ * Resolves the prefixString:localName names of a multi value property, such as
+ * the aspects of a node, once per entry so that every evaluator testing them
+ * is a single set lookup.
+ */
+public final class PrefixStringResolver {
+
+	static final String NAMESPACE = "prefixStrings";
+
+	private PrefixStringResolver() {
+	}
+
+	public static Set<String> getPrefixStrings(String evaluatorKey, PeltasEntry auditEntry) {
+		return auditEntry.resolve(NAMESPACE, evaluatorKey, PrefixStringResolver::toPrefixStrings);
+	}
+
+	private static Set<String> toPrefixStrings(PeltasEntry auditEntry, String evaluatorKey) {
+		List<Object> mappedMultiValueProperty = PeltasEntryHandler.getMappedMultiValueProperty(evaluatorKey,
+				auditEntry);
+		if (mappedMultiValueProperty.isEmpty()) {
+			return Collections.emptySet();
+		}
+
+		Set<String> prefixStrings = new HashSet<>(mappedMultiValueProperty.size() * 2);
+		for (Object object : mappedMultiValueProperty) {
+			if (object instanceof Map) {
+				Map<?, ?> map = (Map<?, ?>) object;
+				prefixStrings.add(map.get("prefixString") + ":" + map.get("localName"));
+			}
+		}
+		return prefixStrings;
+	}
+}
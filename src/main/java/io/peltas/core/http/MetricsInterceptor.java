@@ -0,0 +1,62 @@
+/**
+ * Copyright 2019 Pleo Soft d.o.o. (pleosoft.com)
+
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.peltas.core.http;
+
+import java.io.IOException;
+
+import org.springframework.http.HttpRequest;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+
+import io.peltas.core.metrics.PeltasMetrics;
+
+public class MetricsInterceptor implements ClientHttpRequestInterceptor {
+
+	private final PeltasMetrics metrics;
+
+	public MetricsInterceptor(PeltasMetrics metrics) {
+		this.metrics = metrics;
+	}
+
+	@Override
+	public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution)
+			throws IOException {
+		long start = System.nanoTime();
+		String status = "IO_ERROR";
+		try {
+			ClientHttpResponse response = execution.execute(request, body);
+			status = Integer.toString(response.getRawStatusCode());
+			return response;
+		} finally {
+			metrics.recordHttpRequest(getEndpoint(request), request.getMethodValue(), status, start);
+		}
+	}
+
+	/**
+	 * @return the last path segment, the SOLR endpoints are /nodes, /metadata and
+	 *         /transactions
+	 */
+	protected String getEndpoint(HttpRequest request) {
+		String path = request.getURI().getPath();
+		if (path == null || path.isEmpty()) {
+			return "/";
+		}
+		int end = path.endsWith("/") ? path.length() - 1 : path.length();
+		return path.substring(path.lastIndexOf('/', end - 1) + 1, end);
+	}
+}
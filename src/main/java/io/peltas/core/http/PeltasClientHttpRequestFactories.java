@@ -0,0 +1,91 @@
+/**
+ * Copyright 2019 Pleo Soft d.o.o. (pleosoft.com)
+
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.peltas.core.http;
+
+import java.util.concurrent.TimeUnit;
+
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
+import org.apache.http.impl.client.HttpClientBuilder;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.util.ClassUtils;
+
+import io.peltas.boot.PeltasProperties;
+
+public final class PeltasClientHttpRequestFactories {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(PeltasClientHttpRequestFactories.class);
+
+	private static final boolean HTTP_CLIENT_PRESENT = ClassUtils.isPresent(
+			"org.apache.http.impl.client.HttpClientBuilder", PeltasClientHttpRequestFactories.class.getClassLoader());
+
+	private PeltasClientHttpRequestFactories() {
+	}
+
+	public static ClientHttpRequestFactory create(PeltasProperties.Http http) {
+		if (http.getPooled()) {
+			if (HTTP_CLIENT_PRESENT) {
+				return HttpComponents.create(http);
+			}
+			LOGGER.warn("peltas.http.pooled is set but Apache HttpClient is not on the classpath, "
+					+ "falling back to a JDK connection per request");
+		}
+
+		SimpleClientHttpRequestFactory requestFactory = new SimpleClientHttpRequestFactory();
+		requestFactory.setConnectTimeout(http.getConnectTimeout());
+		requestFactory.setReadTimeout(http.getReadTimeout());
+		return requestFactory;
+	}
+
+	// kept apart so the Apache classes are only loaded when they are present
+	private static class HttpComponents {
+
+		static ClientHttpRequestFactory create(PeltasProperties.Http http) {
+			PoolingHttpClientConnectionManager connectionManager = new PoolingHttpClientConnectionManager();
+			connectionManager.setMaxTotal(http.getMaxConnections());
+			connectionManager.setDefaultMaxPerRoute(http.getMaxConnectionsPerRoute());
+			// a connection closed by the server while idle is detected before reuse
+			connectionManager.setValidateAfterInactivity(2000);
+
+			RequestConfig requestConfig = RequestConfig.custom().setConnectTimeout(http.getConnectTimeout())
+					.setSocketTimeout(http.getReadTimeout())
+					.setConnectionRequestTimeout(http.getConnectionRequestTimeout()).build();
+
+			long keepAlive = http.getKeepAlive();
+			HttpClientBuilder builder = HttpClientBuilder.create().setConnectionManager(connectionManager)
+					.setDefaultRequestConfig(requestConfig).useSystemProperties()
+					.setKeepAliveStrategy((response, context) -> {
+						long serverKeepAlive = DefaultConnectionKeepAliveStrategy.INSTANCE.getKeepAliveDuration(response,
+								context);
+						return serverKeepAlive > 0 ? serverKeepAlive : keepAlive;
+					}).evictExpiredConnections().evictIdleConnections(keepAlive, TimeUnit.MILLISECONDS);
+
+			if (!http.getCompression()) {
+				builder.disableContentCompression();
+			}
+
+			CloseableHttpClient httpClient = builder.build();
+			return new HttpComponentsClientHttpRequestFactory(httpClient);
+		}
+	}
+}
@@ -21,36 +21,51 @@ import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Map.Entry;
-import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.core.convert.ConversionFailedException;
+import org.springframework.core.convert.TypeDescriptor;
 import org.springframework.core.convert.converter.Converter;
-import org.springframework.format.support.DefaultFormattingConversionService;
+import org.springframework.core.convert.converter.GenericConverter;
 import org.springframework.util.StringUtils;
 
 import io.peltas.core.PeltasEntry;
 import io.peltas.core.StringToMapUtil;
 import io.peltas.core.batch.PeltasDataHolder;
+import io.peltas.core.converter.PeltasConversionService;
+import io.peltas.core.converter.PeltasConverter;
+import io.peltas.core.converter.PeltasConverterRegistry;
 import io.peltas.core.expression.PeltasExpressionProperty;
 import io.peltas.core.expression.PeltasExpressionPropertyMapper;
 import io.peltas.core.expression.PeltasHandlerProperties;
+import io.peltas.core.integration.PeltasMappingPlan.PropertyConverter;
+import io.peltas.core.integration.PeltasMappingPlan.PropertyPlan;
+import io.peltas.core.integration.PeltasMappingPlan.ValueSource;
+import io.peltas.core.metrics.PeltasMetrics;
 
 public class PeltasEntryHandler {
 
 	private static final Logger LOGGER = LoggerFactory.getLogger(PeltasEntryHandler.class);
 
-	private final DefaultFormattingConversionService conversionService;
+	private static final String SINGLE_VALUE = "singleValue";
+	private static final String MULTI_VALUE = "multiValue";
+
+	private final PeltasConversionService conversionService;
+	private final PeltasConverterRegistry peltasConverters;
 	private final PeltasFormatUtil peltasFormatUtil;
+	private final Map<PeltasExpressionPropertyMapper, PeltasMappingPlan> mappingPlans = new ConcurrentHashMap<>();
+	private PeltasMetrics metrics = PeltasMetrics.NOOP;
 
 	public PeltasEntryHandler(List<Converter<?, ?>> converters, PeltasFormatUtil peltasFormatUtil) {
 		this.peltasFormatUtil = peltasFormatUtil;
-		this.conversionService = new DefaultFormattingConversionService();
+		this.peltasConverters = new PeltasConverterRegistry(converters);
+		this.conversionService = new PeltasConversionService(converters);
+	}
 
-		for (Converter<?, ?> converter : converters) {
-			this.conversionService.addConverter(converter);
-		}
+	public void setMetrics(PeltasMetrics metrics) {
+		this.metrics = metrics;
 	}
 
 	public PeltasDataHolder handle(PeltasEntry auditEntry, PeltasHandlerProperties config) {
@@ -58,10 +73,13 @@ public class PeltasEntryHandler {
 
 		final PeltasExpressionPropertyMapper mapper = config.getMapper();
 		final Map<String, Object> mappedProperties = new HashMap<>();
+		final long start = System.nanoTime();
 		try {
 
 			final Map<String, PeltasExpressionProperty> configuredProperties = mapper.getProperty();
-			processProperties(auditEntry, configuredProperties, mappedProperties);
+			long conversionNanos = processProperties(auditEntry, getMappingPlan(mapper), mappedProperties);
+			metrics.recordConversion(config.getHandlerName(), conversionNanos);
+			metrics.recordMapping(config.getHandlerName(), start);
 
 			LOGGER.trace("handle() properties configured {} -  mapped {}", configuredProperties, mappedProperties);
 
@@ -72,48 +90,42 @@ public class PeltasEntryHandler {
 
 	}
 
-	private void processProperties(PeltasEntry auditEntry, Map<String, PeltasExpressionProperty> properties,
-			Map<String, Object> builder) {
-		final Set<Entry<String, PeltasExpressionProperty>> propertyEntries = properties.entrySet();
-
-		final Map<String, PeltasExpressionProperty> postProcessProps = new HashMap<>();
-
-		for (final Entry<String, PeltasExpressionProperty> entry : propertyEntries) {
-
-			final String key = entry.getKey();
-			final PeltasExpressionProperty expresionProperty = entry.getValue();
-			final List<String> exprData = expresionProperty.getData();
-			final List<Object> dataValues = new ArrayList<>();
-			for (String data : exprData) {
-				data = data.trim();
-
-				Object value = null;
-				if (data.startsWith("prop:")) {
-					postProcessProps.put(key, expresionProperty);
-					continue;
-				}
-
-				if ((data.startsWith("\"") && data.endsWith("\"")) || (data.startsWith("'") && data.endsWith("'"))) {
-					value = data.substring(1, data.length() - 1).trim();
-				} else {
-					value = getMappedSingleValueProperty(data, auditEntry);
-				}
+	private PeltasMappingPlan getMappingPlan(PeltasExpressionPropertyMapper mapper) {
+		PeltasMappingPlan plan = mappingPlans.get(mapper);
+		if (plan == null) {
+			plan = new PeltasMappingPlan(mapper.getProperty(), this::bindConverter);
+			mappingPlans.putIfAbsent(mapper, plan);
+		}
+		return plan;
+	}
 
+	/**
+	 * @return the nanoseconds spent in the conversion service
+	 */
+	private long processProperties(PeltasEntry auditEntry, PeltasMappingPlan plan, Map<String, Object> builder) {
+		long conversionNanos = 0;
+		for (final PropertyPlan propertyPlan : plan.getProperties()) {
+			final ValueSource[] sources = propertyPlan.getSources();
+			final List<Object> dataValues = new ArrayList<>(sources.length);
+			for (final ValueSource source : sources) {
+				final Object value = source.getValue(auditEntry, builder);
 				if (value != null) {
 					dataValues.add(value);
 				}
 			}
 
-			convertStringValues(builder, key, expresionProperty, dataValues);
+			conversionNanos += convertStringValues(builder, propertyPlan, dataValues);
 		}
 
-		if (!postProcessProps.isEmpty()) {
-			postProcessProperties(auditEntry, postProcessProps, builder);
+		for (final PropertyPlan referencePlan : plan.getReferences()) {
+			conversionNanos += postProcessProperty(auditEntry, referencePlan, builder);
 		}
+		return conversionNanos;
 	}
 
-	private void convertStringValues(Map<String, Object> builder, String key,
-			PeltasExpressionProperty expresionProperty, List<Object> dataValues) {
+	private long convertStringValues(Map<String, Object> builder, PropertyPlan propertyPlan,
+			List<Object> dataValues) {
+		final PeltasExpressionProperty expresionProperty = propertyPlan.getProperty();
 		Object value = null;
 		if (dataValues != null && !dataValues.isEmpty()) {
 			final String format = expresionProperty.getFormat();
@@ -128,34 +140,22 @@ public class PeltasEntryHandler {
 				}
 			}
 		}
-		convertValue(value, builder, key, expresionProperty);
+		return convertValue(value, builder, propertyPlan);
 	}
 
-	private void convertValue(Object value, Map<String, Object> builder, String key,
-			PeltasExpressionProperty expresionProperty) {
+	private long convertValue(Object value, Map<String, Object> builder, PropertyPlan propertyPlan) {
+		final String key = propertyPlan.getKey();
 		if (value == null) {
 			builder.put(key, null);
-			return;
+			return 0;
 		}
 
-		final Class<?> convertClass = expresionProperty.getType();
-		if (convertClass != null) {
-			final String format = expresionProperty.getFormat();
-			final List<String> formatKeys = expresionProperty.getFormatKeys();
-			// if(value.getClass().isAssignableFrom(convertClass) && format ==
-			// null){
-			// return;
-			// }
-
-			peltasFormatUtil.setCurrentFormat(format);
-			peltasFormatUtil.setCurrentFormatKeys(formatKeys);
-			LOGGER.trace("convertValue() converting {} -> {} value {} using format {}", value.getClass(), convertClass,
-					value, format);
-			value = conversionService.convert(value, convertClass);
-			LOGGER.trace("convertValue() converted {}", value);
-			peltasFormatUtil.setCurrentFormat(null);
-			peltasFormatUtil.setCurrentFormatKeys(null);
-		}
+		LOGGER.trace("convertValue() converting {} -> {} value {} using format {}", value.getClass(),
+				propertyPlan.getProperty().getType(), value, propertyPlan.getProperty().getFormat());
+		final long start = System.nanoTime();
+		value = propertyPlan.getConverter().convert(value);
+		final long conversionNanos = System.nanoTime() - start;
+		LOGGER.trace("convertValue() converted {}", value);
 
 		if (value != null) {
 			if (value instanceof Map) {
@@ -170,56 +170,54 @@ public class PeltasEntryHandler {
 				builder.put(key, value);
 			}
 		}
+		return conversionNanos;
 	}
 
-	private void postProcessProperties(PeltasEntry auditEntry, Map<String, PeltasExpressionProperty> properties,
-			Map<String, Object> builder) {
+	private PropertyConverter bindConverter(PeltasExpressionProperty property) {
+		if (property.getType() == null) {
+			return PropertyConverter.IDENTITY;
+		}
+		return new BoundPropertyConverter(property.getType(), property.getFormat(), property.getFormatKeys());
+	}
 
-		final Set<Entry<String, PeltasExpressionProperty>> propertyEntries = properties.entrySet();
-		for (final Entry<String, PeltasExpressionProperty> entry : propertyEntries) {
-			final PeltasExpressionProperty expresionProperty = entry.getValue();
+	private long postProcessProperty(PeltasEntry auditEntry, PropertyPlan referencePlan,
+			Map<String, Object> builder) {
+		final PeltasExpressionProperty expresionProperty = referencePlan.getProperty();
+		final ValueSource[] sources = referencePlan.getSources();
 
-			final List<String> exprData = expresionProperty.getData();
-			if (exprData.size() == 0) {
-				throw new RuntimeException("an evaluated property (prop:) does not support empty data values");
+		if (sources.length == 1) {
+			final Object value = sources[0].getValue(auditEntry, builder);
+			if (value != null && expresionProperty.getType() != null) {
+				return convertValue(value, builder, referencePlan);
 			}
-
-			if (exprData.size() == 1) {
-				for (final String data : exprData) {
-					final String replacedData = data.replaceFirst("prop:", "");
-					Object value = builder.get(replacedData);
-
-					final String[] keyDelimited = StringUtils.delimitedListToStringArray(replacedData, "@");
-					if (keyDelimited.length > 1) {
-
-						final Map<?, ?> map = (Map<?, ?>) builder.get(keyDelimited[0]);
-						value = map.get(keyDelimited[1]);
-					}
-
-					if (value != null) {
-						final Class<?> convertClass = expresionProperty.getType();
-						if (convertClass != null) {
-							convertValue(value, builder, entry.getKey(), expresionProperty);
-						}
-					}
-				}
-			} else {
-				final List<Object> dataValues = new ArrayList<>();
-				for (final String data : exprData) {
-					final String replacedData = data.replaceFirst("prop:", "");
-					final String[] keyDelimited = StringUtils.delimitedListToStringArray(replacedData, "@");
-					final Map<?, ?> map = (Map<?, ?>) builder.get(keyDelimited[0]);
-					dataValues.add(map.get(keyDelimited[1]));
-				}
-
-				convertStringValues(builder, entry.getKey(), expresionProperty, dataValues);
+			return 0;
+		} else {
+			final List<Object> dataValues = new ArrayList<>(sources.length);
+			for (final ValueSource source : sources) {
+				dataValues.add(source.getValue(auditEntry, builder));
 			}
 
+			return convertStringValues(builder, referencePlan, dataValues);
 		}
 	}
 
-	@SuppressWarnings("unchecked")
+	/**
+	 * Resolved once per entry, the evaluators and the mapping of an entry share
+	 * the resolved value.
+	 */
 	public static Object getMappedSingleValueProperty(String value, PeltasEntry auditEntry) {
+		return auditEntry.resolve(SINGLE_VALUE, value, PeltasEntryHandler::resolveSingleValueProperty);
+	}
+
+	/**
+	 * Resolved once per entry, the returned list is shared and cannot be modified.
+	 */
+	public static List<Object> getMappedMultiValueProperty(String value, PeltasEntry auditEntry) {
+		return auditEntry.resolve(MULTI_VALUE, value, PeltasEntryHandler::resolveMultiValueProperty);
+	}
+
+	@SuppressWarnings("unchecked")
+	private static Object resolveSingleValueProperty(PeltasEntry auditEntry, String value) {
 		LOGGER.trace("getMappedSingleValueProperty() retreiving {} from {}", value, auditEntry);
 
 		if (value.contains("@")) {
@@ -243,22 +241,111 @@ public class PeltasEntryHandler {
 
 	}
 
-	public static List<Object> getMappedMultiValueProperty(String value, PeltasEntry auditEntry) {
+	private static List<Object> resolveMultiValueProperty(PeltasEntry auditEntry, String value) {
 		LOGGER.trace("getMappedMultiValueProperty() retreiving {} from {}", value, auditEntry);
 
 		if (value.contains("@")) {
 			final String[] keyDelimited = StringUtils.delimitedListToStringArray(value, "@");
 			final Object valuesMapString = auditEntry.getValues().get(keyDelimited[0]);
 			if (valuesMapString != null) {
-				return StringToMapUtil.valueAsList(valuesMapString, ',');
+				return Collections.unmodifiableList(StringToMapUtil.valueAsList(valuesMapString, ','));
 			} else {
 				return Collections.emptyList();
 			}
 		} else {
 			final Object string = auditEntry.getValues().get(value);
-			return StringToMapUtil.valueAsList(string, ',');
+			return Collections.unmodifiableList(StringToMapUtil.valueAsList(string, ','));
+
+		}
+	}
+
+	/**
+	 * The conversion of a property, resolved once per class of the mapped value:
+	 * the value itself when it already has the configured type and none of the
+	 * configured converters applies, the format-aware converter, or the converter
+	 * the conversion service resolved.
+	 */
+	private class BoundPropertyConverter implements PropertyConverter {
+
+		private final Class<?> convertClass;
+		private final TypeDescriptor targetType;
+		private final String format;
+		private final List<String> formatKeys;
+
+		private volatile Dispatch dispatch;
+
+		BoundPropertyConverter(Class<?> convertClass, String format, List<String> formatKeys) {
+			this.convertClass = convertClass;
+			this.targetType = TypeDescriptor.valueOf(convertClass);
+			this.format = format;
+			this.formatKeys = formatKeys;
+		}
+
+		@Override
+		public Object convert(Object value) {
+			Dispatch current = dispatch;
+			if (current == null || current.sourceType != value.getClass()) {
+				current = new Dispatch(value.getClass(), resolve(value.getClass()));
+				dispatch = current;
+			}
+			return current.converter.convert(value);
+		}
 
+		private PropertyConverter resolve(Class<?> sourceClass) {
+			if (convertClass.isAssignableFrom(sourceClass)
+					&& !peltasConverters.hasConverter(sourceClass, convertClass)) {
+				return PropertyConverter.IDENTITY;
+			}
+
+			final PeltasConverter<Object, Object> peltasConverter = peltasConverters.getConverter(sourceClass,
+					convertClass);
+			if (peltasConverter != null) {
+				return value -> peltasConverter.convert(value, format, formatKeys);
+			}
+
+			final TypeDescriptor sourceType = TypeDescriptor.valueOf(sourceClass);
+			final GenericConverter converter = conversionService.getConverter(sourceType, targetType);
+			if (converter == null) {
+				// fails with the conversion service's own exception
+				return value -> conversionService.convert(value, convertClass);
+			}
+			return value -> invoke(converter, value, sourceType);
+		}
+
+		private Object invoke(GenericConverter converter, Object value, TypeDescriptor sourceType) {
+			// converters which are no PeltasConverter still read the format from the thread
+			if (format != null) {
+				peltasFormatUtil.setCurrentFormat(format);
+				peltasFormatUtil.setCurrentFormatKeys(formatKeys);
+			}
+			try {
+				final Object result = converter.convert(value, sourceType, targetType);
+				if (result == null && convertClass.isPrimitive()) {
+					throw new ConversionFailedException(sourceType, targetType, value,
+							new IllegalArgumentException("A null value cannot be assigned to a primitive type"));
+				}
+				return result;
+			} catch (ConversionFailedException e) {
+				throw e;
+			} catch (Throwable e) {
+				throw new ConversionFailedException(sourceType, targetType, value, e);
+			} finally {
+				if (format != null) {
+					peltasFormatUtil.setCurrentFormat(null);
+					peltasFormatUtil.setCurrentFormatKeys(null);
+				}
+			}
 		}
 	}
 
+	private static class Dispatch {
+
+		private final Class<?> sourceType;
+		private final PropertyConverter converter;
+
+		Dispatch(Class<?> sourceType, PropertyConverter converter) {
+			this.sourceType = sourceType;
+			this.converter = converter;
+		}
+	}
 }
@@ -18,6 +18,12 @@ package io.peltas.core.integration;
 
 import java.util.List;
 
+/**
+ * Hands the format of the mapped property to converters which are not a
+ * {@link io.peltas.core.converter.PeltasConverter}, it is only set around such
+ * a conversion when the property has a format. New converters should implement
+ * PeltasConverter which receives the format with every conversion.
+ */
 public class PeltasFormatUtil {
 
 	private final ThreadLocal<String> CURRENT_FORMAT = new ThreadLocal<>();
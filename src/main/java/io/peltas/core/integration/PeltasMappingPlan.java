@@ -0,0 +1,265 @@
+/**
+ * Copyright 2019 Pleo Soft d.o.o. (pleosoft.com)
+
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.peltas.core.integration;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.function.Function;
+
+import org.springframework.util.StringUtils;
+
+import io.peltas.core.PeltasEntry;
+import io.peltas.core.expression.PeltasExpressionProperty;
+import io.peltas.core.expression.PeltasExpressionPropertyMapper;
+
+/**
+ * A {@link PeltasExpressionPropertyMapper} compiled once into the value sources
+ * of every property and the converter bound to it. The properties are resolved
+ * from the entry first, the prop: references afterwards in the order of their
+ * dependencies.
+ */
+public class PeltasMappingPlan {
+
+	private final List<PropertyPlan> properties;
+	private final List<PropertyPlan> references;
+
+	/**
+	 * A plan which keeps the mapped values as they are.
+	 */
+	public PeltasMappingPlan(Map<String, PeltasExpressionProperty> configuredProperties) {
+		this(configuredProperties, property -> PropertyConverter.IDENTITY);
+	}
+
+	public PeltasMappingPlan(Map<String, PeltasExpressionProperty> configuredProperties,
+			Function<PeltasExpressionProperty, PropertyConverter> converters) {
+		List<PropertyPlan> entryProperties = new ArrayList<>(configuredProperties.size());
+		Map<String, PropertyPlan> referenceProperties = new LinkedHashMap<>();
+
+		for (Entry<String, PeltasExpressionProperty> entry : configuredProperties.entrySet()) {
+			String key = entry.getKey();
+			PeltasExpressionProperty property = entry.getValue();
+
+			List<ValueSource> sources = new ArrayList<>();
+			boolean reference = false;
+			for (String data : property.getData()) {
+				data = data.trim();
+				if (data.startsWith("prop:")) {
+					reference = true;
+				} else if ((data.startsWith("\"") && data.endsWith("\""))
+						|| (data.startsWith("'") && data.endsWith("'"))) {
+					sources.add(new LiteralSource(data.substring(1, data.length() - 1).trim()));
+				} else if (data.contains("@")) {
+					sources.add(new NestedEntrySource(data));
+				} else {
+					sources.add(new EntrySource(data));
+				}
+			}
+
+			PropertyConverter converter = converters.apply(property);
+
+			// a referencing property is first mapped from its remaining data, like any other
+			entryProperties.add(new PropertyPlan(key, property, sources, converter));
+
+			if (reference) {
+				referenceProperties.put(key, compileReference(key, property, converter));
+			}
+		}
+
+		this.properties = Collections.unmodifiableList(entryProperties);
+		this.references = Collections.unmodifiableList(sortByDependencies(referenceProperties));
+	}
+
+	private static PropertyPlan compileReference(String key, PeltasExpressionProperty property,
+			PropertyConverter converter) {
+		List<ValueSource> sources = new ArrayList<>();
+		List<String> exprData = property.getData();
+		for (String data : exprData) {
+			String replacedData = data.replaceFirst("prop:", "");
+			String[] keyDelimited = StringUtils.delimitedListToStringArray(replacedData, "@");
+			if (keyDelimited.length > 1) {
+				sources.add(new NestedPropertySource(keyDelimited[0], keyDelimited[1]));
+			} else if (exprData.size() == 1) {
+				sources.add(new PropertySource(replacedData));
+			} else {
+				throw new IllegalArgumentException(
+						"a property referencing several prop: values must use the map@key form: " + data);
+			}
+		}
+		return new PropertyPlan(key, property, sources, converter);
+	}
+
+	private static List<PropertyPlan> sortByDependencies(Map<String, PropertyPlan> referenceProperties) {
+		List<PropertyPlan> sorted = new ArrayList<>(referenceProperties.size());
+		Set<String> visited = new HashSet<>();
+		for (PropertyPlan plan : referenceProperties.values()) {
+			visit(plan, referenceProperties, visited, sorted);
+		}
+		return sorted;
+	}
+
+	private static void visit(PropertyPlan plan, Map<String, PropertyPlan> referenceProperties, Set<String> visited,
+			List<PropertyPlan> sorted) {
+		if (!visited.add(plan.key)) {
+			// already placed, or a cycle which keeps the configured order
+			return;
+		}
+
+		for (ValueSource source : plan.sources) {
+			PropertyPlan dependency = referenceProperties.get(((PropertySource) source).key);
+			if (dependency != null) {
+				visit(dependency, referenceProperties, visited, sorted);
+			}
+		}
+		sorted.add(plan);
+	}
+
+	public List<PropertyPlan> getProperties() {
+		return properties;
+	}
+
+	public List<PropertyPlan> getReferences() {
+		return references;
+	}
+
+	public static class PropertyPlan {
+
+		private final String key;
+		private final PeltasExpressionProperty property;
+		private final ValueSource[] sources;
+		private final PropertyConverter converter;
+
+		PropertyPlan(String key, PeltasExpressionProperty property, List<ValueSource> sources,
+				PropertyConverter converter) {
+			this.key = key;
+			this.property = property;
+			this.sources = sources.toArray(new ValueSource[sources.size()]);
+			this.converter = converter;
+		}
+
+		public String getKey() {
+			return key;
+		}
+
+		public PeltasExpressionProperty getProperty() {
+			return property;
+		}
+
+		public ValueSource[] getSources() {
+			return sources;
+		}
+
+		public PropertyConverter getConverter() {
+			return converter;
+		}
+	}
+
+	public interface ValueSource {
+
+		Object getValue(PeltasEntry auditEntry, Map<String, Object> builder);
+	}
+
+	/**
+	 * Converts a non-null mapped value to the configured type of the property.
+	 */
+	public interface PropertyConverter {
+
+		PropertyConverter IDENTITY = value -> value;
+
+		Object convert(Object value);
+	}
+
+	private static class LiteralSource implements ValueSource {
+
+		private final String value;
+
+		LiteralSource(String value) {
+			this.value = value;
+		}
+
+		@Override
+		public Object getValue(PeltasEntry auditEntry, Map<String, Object> builder) {
+			return value;
+		}
+	}
+
+	private static class EntrySource implements ValueSource {
+
+		private final String key;
+
+		EntrySource(String key) {
+			this.key = key;
+		}
+
+		@Override
+		public Object getValue(PeltasEntry auditEntry, Map<String, Object> builder) {
+			return auditEntry.getValues().get(key);
+		}
+	}
+
+	/**
+	 * Shares the value the evaluators already resolved for the entry.
+	 */
+	private static class NestedEntrySource implements ValueSource {
+
+		private final String path;
+
+		NestedEntrySource(String path) {
+			this.path = path;
+		}
+
+		@Override
+		public Object getValue(PeltasEntry auditEntry, Map<String, Object> builder) {
+			return PeltasEntryHandler.getMappedSingleValueProperty(path, auditEntry);
+		}
+	}
+
+	private static class PropertySource implements ValueSource {
+
+		protected final String key;
+
+		PropertySource(String key) {
+			this.key = key;
+		}
+
+		@Override
+		public Object getValue(PeltasEntry auditEntry, Map<String, Object> builder) {
+			return builder.get(key);
+		}
+	}
+
+	private static class NestedPropertySource extends PropertySource {
+
+		private final String nestedKey;
+
+		NestedPropertySource(String key, String nestedKey) {
+			super(key);
+			this.nestedKey = nestedKey;
+		}
+
+		@Override
+		public Object getValue(PeltasEntry auditEntry, Map<String, Object> builder) {
+			Map<?, ?> map = (Map<?, ?>) builder.get(key);
+			return map.get(nestedKey);
+		}
+	}
+}
@@ -0,0 +1,148 @@
+/**
+ * Copyright 2019 Pleo Soft d.o.o. (pleosoft.com)
+
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.peltas.core.metrics;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToDoubleFunction;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.composite.CompositeMeterRegistry;
+
+/**
+ * The meters of every stage of the Peltas pipeline, registered lazily and
+ * cached so recording on the hot path is a map lookup.
+ */
+public class PeltasMetrics {
+
+	/**
+	 * Records into a registry without children, nothing is kept.
+	 */
+	public static final PeltasMetrics NOOP = new PeltasMetrics(new CompositeMeterRegistry());
+
+	public static final String HTTP_REQUESTS = "peltas.http.requests";
+	public static final String WINDOW_NODES = "peltas.reader.window.nodes";
+	public static final String WINDOW_SIZE = "peltas.reader.window.size";
+	public static final String CHECKPOINT_LAG = "peltas.reader.checkpoint.lag";
+	public static final String EVALUATOR_MATCH = "peltas.evaluator.match";
+	public static final String EVALUATOR_NO_MATCH = "peltas.evaluator.nomatch";
+	public static final String HANDLER_MAPPING = "peltas.handler.mapping";
+	public static final String HANDLER_CONVERSION = "peltas.handler.conversion";
+	public static final String EXECUTION = "peltas.execution";
+	public static final String EXECUTION_ROWS = "peltas.execution.rows";
+	public static final String CHUNK = "peltas.chunk";
+	public static final String CHUNK_COMMIT = "peltas.chunk.commit";
+
+	private final MeterRegistry registry;
+	private final Map<String, Timer> timers = new ConcurrentHashMap<>();
+	private final Map<String, Counter> counters = new ConcurrentHashMap<>();
+	private final Map<String, DistributionSummary> summaries = new ConcurrentHashMap<>();
+
+	public PeltasMetrics(MeterRegistry registry) {
+		this.registry = registry;
+	}
+
+	public MeterRegistry getRegistry() {
+		return registry;
+	}
+
+	/**
+	 * @param endpoint the last path segment of the SOLR url, e.g. nodes
+	 * @param status   the HTTP status code, or IO_ERROR
+	 */
+	public void recordHttpRequest(String endpoint, String method, String status, long startNanos) {
+		timer(HTTP_REQUESTS, "endpoint", endpoint, "method", method, "status", status).record(elapsed(startNanos),
+				TimeUnit.NANOSECONDS);
+	}
+
+	public void recordWindow(String application, int nodes) {
+		summaries.computeIfAbsent(WINDOW_NODES + application, k -> DistributionSummary.builder(WINDOW_NODES)
+				.baseUnit("nodes").tag("application", application).register(registry)).record(nodes);
+	}
+
+	public <T> void gaugeWindowSize(String application, T reader, ToDoubleFunction<T> windowSize) {
+		Gauge.builder(WINDOW_SIZE, reader, windowSize).baseUnit("transactions").tag("application", application)
+				.register(registry);
+	}
+
+	/**
+	 * @param lag the number of transactions between the last committed one and
+	 *            the max transaction of the repository
+	 */
+	public <T> void gaugeCheckpointLag(String application, T reader, ToDoubleFunction<T> lag) {
+		Gauge.builder(CHECKPOINT_LAG, reader, lag).baseUnit("transactions").tag("application", application)
+				.register(registry);
+	}
+
+	public void recordMatch(String application, boolean matched, long startNanos) {
+		timer(EVALUATOR_MATCH, "application", application, "matched", Boolean.toString(matched))
+				.record(elapsed(startNanos), TimeUnit.NANOSECONDS);
+		if (!matched) {
+			counter(EVALUATOR_NO_MATCH, "application", application).increment();
+		}
+	}
+
+	public void recordMapping(String handler, long startNanos) {
+		timer(HANDLER_MAPPING, "handler", String.valueOf(handler)).record(elapsed(startNanos), TimeUnit.NANOSECONDS);
+	}
+
+	public void recordConversion(String handler, long nanos) {
+		timer(HANDLER_CONVERSION, "handler", String.valueOf(handler)).record(nanos, TimeUnit.NANOSECONDS);
+	}
+
+	/**
+	 * @param rows the rows returned or updated by the execution
+	 */
+	public void recordExecution(String executionKey, boolean batched, int rows, long startNanos) {
+		timer(EXECUTION, "execution", executionKey, "batched", Boolean.toString(batched)).record(elapsed(startNanos),
+				TimeUnit.NANOSECONDS);
+		counter(EXECUTION_ROWS, "execution", executionKey).increment(rows);
+	}
+
+	public void recordChunk(String application, long startNanos) {
+		timer(CHUNK, "application", application).record(elapsed(startNanos), TimeUnit.NANOSECONDS);
+	}
+
+	public void recordChunkCommit(String application, long startNanos) {
+		timer(CHUNK_COMMIT, "application", application).record(elapsed(startNanos), TimeUnit.NANOSECONDS);
+	}
+
+	private Timer timer(String name, String... tags) {
+		return timers.computeIfAbsent(key(name, tags), k -> Timer.builder(name).tags(tags).register(registry));
+	}
+
+	private Counter counter(String name, String... tags) {
+		return counters.computeIfAbsent(key(name, tags), k -> Counter.builder(name).tags(tags).register(registry));
+	}
+
+	private static String key(String name, String... tags) {
+		StringBuilder key = new StringBuilder(name);
+		for (String tag : tags) {
+			key.append('|').append(tag);
+		}
+		return key.toString();
+	}
+
+	private static long elapsed(long startNanos) {
+		return System.nanoTime() - startNanos;
+	}
+}
@@ -0,0 +1,94 @@
+/**
+ * Copyright 2019 Pleo Soft d.o.o. (pleosoft.com)
+
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.peltas.core.repository;
+
+import java.util.Date;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import io.peltas.core.repository.jpa.PeltasTimestamp;
+
+/**
+ * Write-through checkpoint cache shared by the reader and the processor. The
+ * delegate is only read once per application name, a written checkpoint is
+ * cached once its transaction commits so a rolled back chunk keeps the previous
+ * one.
+ */
+public class CachingTxDataRepository implements TxDataRepository {
+
+	private final TxDataRepository delegate;
+	private final Map<String, Optional<PeltasTimestamp>> checkpoints = new ConcurrentHashMap<>();
+
+	public CachingTxDataRepository(TxDataRepository delegate) {
+		this.delegate = delegate;
+	}
+
+	@Override
+	public PeltasTimestamp writeTx(PeltasTimestamp ts) {
+		PeltasTimestamp written = delegate.writeTx(ts);
+		PeltasTimestamp checkpoint = copy(written != null ? written : ts);
+
+		if (TransactionSynchronizationManager.isSynchronizationActive()) {
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+				@Override
+				public void afterCommit() {
+					checkpoints.put(checkpoint.getApplicationName(), Optional.of(checkpoint));
+				}
+			});
+		} else {
+			checkpoints.put(checkpoint.getApplicationName(), Optional.of(checkpoint));
+		}
+
+		return written;
+	}
+
+	@Override
+	public PeltasTimestamp readTx(String applicationName) {
+		Optional<PeltasTimestamp> checkpoint = checkpoints.computeIfAbsent(applicationName,
+				name -> Optional.ofNullable(copy(delegate.readTx(name))));
+		return checkpoint.map(CachingTxDataRepository::copy).orElse(null);
+	}
+
+	/**
+	 * Drops the cached checkpoint, the next read goes to the delegate again.
+	 */
+	public void evict(String applicationName) {
+		checkpoints.remove(applicationName);
+	}
+
+	public TxDataRepository getDelegate() {
+		return delegate;
+	}
+
+	private static PeltasTimestamp copy(PeltasTimestamp timestamp) {
+		if (timestamp == null) {
+			return null;
+		}
+
+		Date access = timestamp.getAccess() != null ? new Date(timestamp.getAccess().getTime()) : null;
+		PeltasTimestamp copy = new PeltasTimestamp(timestamp.getApplicationName(), timestamp.getRef(), access);
+		copy.setLastTxnId(timestamp.getLastTxnId());
+		copy.setLastNodeId(timestamp.getLastNodeId());
+		copy.setProcessedCount(timestamp.getProcessedCount());
+		copy.setWindowSize(timestamp.getWindowSize());
+		return copy;
+	}
+}
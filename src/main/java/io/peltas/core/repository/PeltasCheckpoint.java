@@ -0,0 +1,133 @@
+/**
+ * Copyright 2019 Pleo Soft d.o.o. (pleosoft.com)
+
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.peltas.core.repository;
+
+import java.io.Serializable;
+
+import io.peltas.core.repository.jpa.PeltasTimestamp;
+
+/**
+ * Position of an application: the last written transaction and node, the
+ * number of processed entries and the reader window size. It is exchanged
+ * between the reader and the processor in the chunk context and stored in the
+ * dedicated columns of {@link PeltasTimestamp}.
+ */
+public final class PeltasCheckpoint implements Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	public static final String CHUNK_ATTRIBUTE = "peltasCheckpoint";
+
+	static final String COUNT_SEPARATOR = "___";
+
+	private final Long lastTxnId;
+	private final Long lastNodeId;
+	private final long processedCount;
+	private final Long windowSize;
+
+	public PeltasCheckpoint(Long lastTxnId, Long lastNodeId, long processedCount, Long windowSize) {
+		this.lastTxnId = lastTxnId;
+		this.lastNodeId = lastNodeId;
+		this.processedCount = processedCount;
+		this.windowSize = windowSize;
+	}
+
+	/**
+	 * @return the checkpoint stored in the timestamp columns, or parsed from the
+	 *         legacy txnId;nodeId___count ref when the columns are still empty
+	 */
+	public static PeltasCheckpoint of(PeltasTimestamp timestamp) {
+		if (timestamp == null) {
+			return null;
+		}
+
+		if (timestamp.getProcessedCount() != null) {
+			return new PeltasCheckpoint(timestamp.getLastTxnId(), timestamp.getLastNodeId(),
+					timestamp.getProcessedCount(), timestamp.getWindowSize());
+		}
+
+		String ref = timestamp.getRef();
+		int countIndex = ref.indexOf(COUNT_SEPARATOR);
+		String id = countIndex >= 0 ? ref.substring(0, countIndex) : ref;
+		long count = 0;
+		if (countIndex >= 0) {
+			try {
+				count = Long.parseLong(ref.substring(countIndex + COUNT_SEPARATOR.length()));
+			} catch (NumberFormatException e) {
+				// a custom count format, parsed by PeltasProcessor.readCheckpoint()
+			}
+		}
+
+		return fromEntryId(id, count, null);
+	}
+
+	/**
+	 * @param entryId the id of the last written entry, txnId;nodeId for the
+	 *                Alfresco workspace reader
+	 */
+	public static PeltasCheckpoint fromEntryId(String entryId, long processedCount, Long windowSize) {
+		Long txnId = null;
+		Long nodeId = null;
+
+		int separator = entryId.indexOf(';');
+		try {
+			if (separator >= 0) {
+				txnId = Long.valueOf(entryId.substring(0, separator));
+				nodeId = Long.valueOf(entryId.substring(separator + 1));
+			}
+		} catch (NumberFormatException e) {
+			// not an Alfresco workspace entry, only the count is tracked
+			txnId = null;
+			nodeId = null;
+		}
+
+		return new PeltasCheckpoint(txnId, nodeId, processedCount, windowSize);
+	}
+
+	public void applyTo(PeltasTimestamp timestamp) {
+		timestamp.setLastTxnId(lastTxnId);
+		timestamp.setLastNodeId(lastNodeId);
+		timestamp.setProcessedCount(processedCount);
+		timestamp.setWindowSize(windowSize);
+	}
+
+	public PeltasCheckpoint withWindowSize(Long windowSize) {
+		return new PeltasCheckpoint(lastTxnId, lastNodeId, processedCount, windowSize);
+	}
+
+	public Long getLastTxnId() {
+		return lastTxnId;
+	}
+
+	public Long getLastNodeId() {
+		return lastNodeId;
+	}
+
+	public long getProcessedCount() {
+		return processedCount;
+	}
+
+	public Long getWindowSize() {
+		return windowSize;
+	}
+
+	@Override
+	public String toString() {
+		return "PeltasCheckpoint [lastTxnId=" + lastTxnId + ", lastNodeId=" + lastNodeId + ", processedCount="
+				+ processedCount + ", windowSize=" + windowSize + "]";
+	}
+}
@@ -0,0 +1,89 @@
+/**
+ * Copyright 2019 Pleo Soft d.o.o. (pleosoft.com)
+
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.peltas.core.repository.jdbc;
+
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+import org.springframework.jdbc.core.SqlParameter;
+import org.springframework.jdbc.core.SqlParameterValue;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterUtils;
+import org.springframework.jdbc.core.namedparam.ParsedSql;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+
+/**
+ * An execution file parsed once: its named parameters and the JDBC statement
+ * it runs as long as no parameter value has to be expanded into a list.
+ */
+class ParsedExecution {
+
+	private final String key;
+	private final String sql;
+	private final ParsedSql parsedSql;
+	private final String jdbcSql;
+	private final Set<String> parameterNames;
+
+	ParsedExecution(String key, String sql) {
+		this.key = key;
+		this.sql = sql;
+		this.parsedSql = NamedParameterUtils.parseSqlStatement(sql);
+		this.jdbcSql = NamedParameterUtils.substituteNamedParameters(parsedSql, null);
+
+		Set<String> names = new LinkedHashSet<>();
+		for (SqlParameter parameter : NamedParameterUtils.buildSqlParameterList(parsedSql,
+				new MapSqlParameterSource())) {
+			names.add(parameter.getName());
+		}
+		this.parameterNames = Collections.unmodifiableSet(names);
+	}
+
+	/**
+	 * @return the statement values in the order of the JDBC placeholders, or null
+	 *         when a value is expanded into a list and the statement differs from
+	 *         the parsed one
+	 */
+	Object[] getValues(SqlParameterSource parameters) {
+		Object[] values = NamedParameterUtils.buildValueArray(parsedSql, parameters, null);
+		for (Object value : values) {
+			if (value instanceof SqlParameterValue) {
+				value = ((SqlParameterValue) value).getValue();
+			}
+			if (value instanceof Iterable) {
+				return null;
+			}
+		}
+		return values;
+	}
+
+	String getKey() {
+		return key;
+	}
+
+	String getSql() {
+		return sql;
+	}
+
+	String getJdbcSql() {
+		return jdbcSql;
+	}
+
+	Set<String> getParameterNames() {
+		return parameterNames;
+	}
+}
@@ -19,25 +19,41 @@ package io.peltas.core.repository.jdbc;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
+import java.util.regex.Pattern;
+
+import javax.sql.DataSource;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.core.io.Resource;
-import org.springframework.integration.transformer.ObjectToMapTransformer;
+import org.springframework.dao.support.DataAccessUtils;
+import org.springframework.jdbc.core.ArgumentPreparedStatementSetter;
+import org.springframework.jdbc.core.ColumnMapRowMapper;
+import org.springframework.jdbc.core.JdbcOperations;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapperResultSetExtractor;
 import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
 import org.springframework.jdbc.core.namedparam.NamedParameterJdbcOperations;
 import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
-import org.springframework.messaging.Message;
-import org.springframework.messaging.support.GenericMessage;
+import org.springframework.jdbc.datasource.DataSourceUtils;
 import org.springframework.util.Assert;
 import org.springframework.util.FileCopyUtils;
 import org.springframework.util.StringUtils;
 
+import io.peltas.core.MapFlattener;
 import io.peltas.core.PeltasEntry;
 import io.peltas.core.batch.PeltasDataHolder;
 import io.peltas.core.batch.PeltasExecutionItemWriter;
@@ -48,12 +64,52 @@ public class PeltasJdbcWriter extends PeltasExecutionItemWriter<MapSqlParameterS
 
 	private final NamedParameterJdbcOperations namedParameterJdbcTemplate;
 
-	private final Map<String, String> mappedExecutionsConfigResources;
+	private static final Pattern RESULT_STATEMENT = Pattern.compile("(?is)^\\s*select\\b.*|.*\\breturning\\b.*");
+
+	private final Map<String, ParsedExecution> executions;
+
+	private final JdbcTemplate jdbcTemplate;
+
+	private final PeltasStatementCache statementCache;
+
+	private Set<String> batchedExecutions;
+
+	private final ThreadLocal<PendingBatches> pendingBatches = new ThreadLocal<>();
+
+	private final MapFlattener flattener = new MapFlattener();
 
 	public PeltasJdbcWriter(NamedParameterJdbcTemplate template, Resource[] resources) {
+		this(template, resources, false, Collections.emptySet());
+	}
+
+	/**
+	 * In batch mode the statements of an execution are collected and sent with a
+	 * single {@link NamedParameterJdbcOperations#batchUpdate}, in the order the
+	 * executions were first seen, once the chunk is written. A statement running
+	 * one at a time after a batched statement of the same item first sends the
+	 * pending batches, so the statements of an item keep their order; statements
+	 * of different items may still run in another order. Executions returning rows (a SELECT or a RETURNING clause), the ones whose
+	 * result is referenced by another execution and the given
+	 * nonBatchedExecutions still run one at a time.
+	 * <p>
+	 * The execution files are parsed once. When the template runs on a
+	 * {@link JdbcTemplate} with a DataSource, the statements running one at a time
+	 * are prepared once per execution for the connection of the chunk transaction.
+	 */
+	public PeltasJdbcWriter(NamedParameterJdbcTemplate template, Resource[] resources, boolean batch,
+			Set<String> nonBatchedExecutions) {
 		this.namedParameterJdbcTemplate = template;
 
-		this.mappedExecutionsConfigResources = new HashMap<>();
+		JdbcOperations jdbcOperations = template.getJdbcOperations();
+		if (jdbcOperations instanceof JdbcTemplate && ((JdbcTemplate) jdbcOperations).getDataSource() != null) {
+			this.jdbcTemplate = (JdbcTemplate) jdbcOperations;
+			this.statementCache = new PeltasStatementCache(jdbcTemplate.getDataSource());
+		} else {
+			this.jdbcTemplate = null;
+			this.statementCache = null;
+		}
+
+		this.executions = new HashMap<>();
 
 		try {
 			for (Resource resource : resources) {
@@ -70,13 +126,153 @@ public class PeltasJdbcWriter extends PeltasExecutionItemWriter<MapSqlParameterS
 					String configValue = FileCopyUtils.copyToString(new InputStreamReader(is));
 
 					// config.put(configKey, configValue);
-					this.mappedExecutionsConfigResources.put(key, configValue);
+					if (StringUtils.hasText(configValue)) {
+						this.executions.put(key, new ParsedExecution(key, configValue));
+					}
 				}
 
 			}
 		} catch (IOException e) {
 			throw new RuntimeException(e);
 		}
+
+		setBatch(batch, nonBatchedExecutions);
+	}
+
+	/**
+	 * Switches the batch mode, see
+	 * {@link #PeltasJdbcWriter(NamedParameterJdbcTemplate, Resource[], boolean, Set)}.
+	 * Must be called before the first chunk is written.
+	 */
+	public void setBatch(boolean batch, Set<String> nonBatchedExecutions) {
+		this.batchedExecutions = batch ? getBatchableExecutions(nonBatchedExecutions) : Collections.emptySet();
+		if (batch) {
+			LOGGER.info("batched executions: {}", batchedExecutions);
+		}
+	}
+
+	public boolean isBatch() {
+		return !batchedExecutions.isEmpty();
+	}
+
+	private Set<String> getBatchableExecutions(Set<String> nonBatchedExecutions) {
+		Set<String> batchable = new HashSet<>();
+		for (ParsedExecution execution : executions.values()) {
+			String executionKey = execution.getKey();
+			if (nonBatchedExecutions.contains(executionKey)
+					|| RESULT_STATEMENT.matcher(execution.getSql()).matches()) {
+				continue;
+			}
+
+			if (!isResultReferenced(executionKey)) {
+				batchable.add(executionKey);
+			}
+		}
+		return batchable;
+	}
+
+	private boolean isResultReferenced(String executionKey) {
+		// the result of an execution is added as "executionKey.column" parameters
+		String resultReference = executionKey + ".";
+		for (ParsedExecution execution : executions.values()) {
+			for (String parameterName : execution.getParameterNames()) {
+				if (parameterName.startsWith(resultReference)) {
+					return true;
+				}
+			}
+		}
+		return false;
+	}
+
+	public boolean isBatched(String executionKey) {
+		return batchedExecutions.contains(executionKey);
+	}
+
+	@Override
+	protected boolean hasExecution(String executionKey) {
+		return executions.containsKey(executionKey);
+	}
+
+	private ParsedExecution getExecution(String executionKey) {
+		ParsedExecution execution = executions.get(executionKey);
+		Assert.notNull(execution, "Execution file must be setup for " + executionKey);
+		return execution;
+	}
+
+	@Override
+	public void beforeExecution() {
+		if (!batchedExecutions.isEmpty()) {
+			pendingBatches.set(new PendingBatches());
+		}
+	}
+
+	@Override
+	public void afterExecution() {
+		PendingBatches batches = pendingBatches.get();
+		if (batches == null) {
+			return;
+		}
+
+		pendingBatches.remove();
+		executeBatches(batches);
+	}
+
+	/**
+	 * Sends the pending batches when the item has batched statements, as the
+	 * statement about to run may depend on them.
+	 */
+	private void flushBatches(PeltasDataHolder item) {
+		PendingBatches batches = pendingBatches.get();
+		if (batches != null && batches.lastItem == item) {
+			LOGGER.trace("flushBatches() sending the batches before the next statement of {}",
+					item.getAuditEntry().getId());
+			executeBatches(batches);
+			batches.statements.clear();
+			batches.lastItem = null;
+		}
+	}
+
+	private void executeBatches(PendingBatches batches) {
+		for (Entry<String, List<MapSqlParameterSource>> batchEntry : batches.statements.entrySet()) {
+			String sql = executions.get(batchEntry.getKey()).getSql();
+			List<MapSqlParameterSource> batch = batchEntry.getValue();
+
+			if (LOGGER.isTraceEnabled()) {
+				LOGGER.trace("afterExecution() executing sql batch of {}: {}", batch.size(), sql);
+			}
+			long start = System.nanoTime();
+			int[] updateCounts = namedParameterJdbcTemplate.batchUpdate(sql,
+					batch.toArray(new MapSqlParameterSource[batch.size()]));
+			metrics.recordExecution(batchEntry.getKey(), true, getUpdatedRows(updateCounts, batch.size()), start);
+		}
+	}
+
+	/**
+	 * Drivers may answer {@link java.sql.Statement#SUCCESS_NO_INFO}, such a
+	 * statement is counted as a single row.
+	 */
+	private static int getUpdatedRows(int[] updateCounts, int batchSize) {
+		if (updateCounts == null) {
+			return batchSize;
+		}
+
+		int rows = 0;
+		for (int updateCount : updateCounts) {
+			rows += updateCount >= 0 ? updateCount : 1;
+		}
+		return rows;
+	}
+
+	private boolean addToBatch(String executionKey, MapSqlParameterSource parameters, PeltasDataHolder item) {
+		if (!batchedExecutions.contains(executionKey)) {
+			return false;
+		}
+
+		PendingBatches batches = pendingBatches.get();
+		Assert.state(batches != null, "beforeExecution() must be called before " + executionKey);
+		batches.statements.computeIfAbsent(executionKey, k -> new ArrayList<>()).add(parameters);
+		batches.lastItem = item;
+		return true;
 	}
 
 	@Override
@@ -86,14 +282,20 @@ public class PeltasJdbcWriter extends PeltasExecutionItemWriter<MapSqlParameterS
 
 	@Override
 	public void itemExecution(String executionKey, MapSqlParameterSource parameters, PeltasDataHolder item) {
-		String sql = mappedExecutionsConfigResources.get(executionKey);
-		Assert.hasText(sql, "Execution file must be setup for " + executionKey);
+		ParsedExecution execution = getExecution(executionKey);
+
+		if (addToBatch(executionKey, parameters, item)) {
+			return;
+		}
+		flushBatches(item);
 
-		Map<String, Object> sqlResult = namedParameterJdbcTemplate.queryForMap(sql, parameters);
+		long start = System.nanoTime();
+		Map<String, Object> sqlResult = queryForMap(execution, parameters);
+		metrics.recordExecution(executionKey, false, 1, start);
 		addSources(executionKey, parameters, sqlResult);
 
 		if (LOGGER.isTraceEnabled()) {
-			LOGGER.trace("doWithItem() executing sql: {} with data {}", sql, parameters.getValues());
+			LOGGER.trace("doWithItem() executing sql: {} with data {}", execution.getSql(), parameters.getValues());
 		}
 	}
 
@@ -102,19 +304,15 @@ public class PeltasJdbcWriter extends PeltasExecutionItemWriter<MapSqlParameterS
 //		return new MapSqlParameterSource(params.getValues());
 //	}
 
-	@SuppressWarnings("unchecked")
 	@Override
 	public MapSqlParameterSource createCollectionItemInputParameters(MapSqlParameterSource params, String collectionKey,
 			Object collectionValue) {
 		MapSqlParameterSource collectionParams = new MapSqlParameterSource(params.getValues());
 
 		if (collectionValue instanceof Map) {
-			Message<Map<String, ?>> message = new GenericMessage<Map<String, ?>>(
-					Collections.singletonMap(collectionKey, collectionValue));
-			ObjectToMapTransformer transformer = new ObjectToMapTransformer();
-			transformer.setShouldFlattenKeys(true);
-			Map<String, ?> payload = (Map<String, ?>) transformer.transform(message).getPayload();
-			collectionParams.addValues(payload);
+			Map<String, Object> flattened = new HashMap<>();
+			flattener.flatten(collectionKey, collectionValue, flattened);
+			collectionParams.addValues(flattened);
 		} else {
 			collectionParams.addValue(collectionKey, collectionValue);
 		}
@@ -124,13 +322,47 @@ public class PeltasJdbcWriter extends PeltasExecutionItemWriter<MapSqlParameterS
 
 	@Override
 	public void collectionExecution(String executionKey, MapSqlParameterSource params, PeltasDataHolder item) {
-		String collectionSql = mappedExecutionsConfigResources.get(executionKey);
-		Assert.hasText(collectionSql, "Execution file must be setup for " + executionKey);
+		ParsedExecution execution = getExecution(executionKey);
+
+		if (addToBatch(executionKey, params, item)) {
+			return;
+		}
+		flushBatches(item);
 
-		Map<String, Object> sqlResult = namedParameterJdbcTemplate.queryForMap(collectionSql, params);
+		long start = System.nanoTime();
+		Map<String, Object> sqlResult = queryForMap(execution, params);
+		metrics.recordExecution(executionKey, false, 1, start);
 		addSources(executionKey, params, sqlResult);
 		if (LOGGER.isTraceEnabled()) {
-			LOGGER.trace("doWithItem() executing collection sql in batch: {}", collectionSql);
+			LOGGER.trace("doWithItem() executing collection sql in batch: {}", execution.getSql());
+		}
+	}
+
+	private Map<String, Object> queryForMap(ParsedExecution execution, MapSqlParameterSource parameters) {
+		Object[] values = statementCache != null ? execution.getValues(parameters) : null;
+		if (values == null) {
+			return namedParameterJdbcTemplate.queryForMap(execution.getSql(), parameters);
+		}
+
+		DataSource dataSource = jdbcTemplate.getDataSource();
+		Connection con = DataSourceUtils.getConnection(dataSource);
+		PreparedStatement ps = null;
+		try {
+			ps = statementCache.getStatement(con, execution);
+			new ArgumentPreparedStatementSetter(values).setValues(ps);
+			DataSourceUtils.applyTimeout(ps, dataSource, jdbcTemplate.getQueryTimeout());
+
+			List<Map<String, Object>> results;
+			try (ResultSet rs = ps.executeQuery()) {
+				results = new RowMapperResultSetExtractor<>(new ColumnMapRowMapper()).extractData(rs);
+			}
+			return DataAccessUtils.nullableSingleResult(results);
+		} catch (SQLException e) {
+			statementCache.evict(con, execution);
+			throw jdbcTemplate.getExceptionTranslator().translate("PeltasJdbcWriter", execution.getJdbcSql(), e);
+		} finally {
+			statementCache.release(con, ps);
+			DataSourceUtils.releaseConnection(con, dataSource);
 		}
 	}
 
@@ -167,4 +399,11 @@ public class PeltasJdbcWriter extends PeltasExecutionItemWriter<MapSqlParameterS
 		parameterSourceMap.addValues(auditMap);
 		return parameterSourceMap;
 	}
+
+	private static class PendingBatches {
+
+		final Map<String, List<MapSqlParameterSource>> statements = new LinkedHashMap<>();
+		// the item of the last batched statement
+		PeltasDataHolder lastItem;
+	}
 }
@@ -0,0 +1,117 @@
+/**
+ * Copyright 2019 Pleo Soft d.o.o. (pleosoft.com)
+
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.peltas.core.repository.jdbc;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * The prepared statements of the executions, per execution key, for the
+ * connection of the running transaction. They are closed before the
+ * transaction completes. Outside of a transaction every statement is closed
+ * once executed.
+ */
+class PeltasStatementCache {
+
+	private final DataSource dataSource;
+
+	PeltasStatementCache(DataSource dataSource) {
+		this.dataSource = dataSource;
+	}
+
+	PreparedStatement getStatement(Connection con, ParsedExecution execution) throws SQLException {
+		Statements statements = getStatements(con);
+		if (statements == null) {
+			return con.prepareStatement(execution.getJdbcSql());
+		}
+
+		PreparedStatement ps = statements.prepared.get(execution.getKey());
+		if (ps == null) {
+			ps = con.prepareStatement(execution.getJdbcSql());
+			statements.prepared.put(execution.getKey(), ps);
+		} else {
+			ps.clearParameters();
+		}
+		return ps;
+	}
+
+	/**
+	 * Closes the statement unless it is cached for the transaction.
+	 */
+	void release(Connection con, PreparedStatement ps) {
+		if (ps != null && getStatements(con) == null) {
+			JdbcUtils.closeStatement(ps);
+		}
+	}
+
+	/**
+	 * Drops a statement which failed, the next execution prepares it again.
+	 */
+	void evict(Connection con, ParsedExecution execution) {
+		Statements statements = getStatements(con);
+		if (statements != null) {
+			JdbcUtils.closeStatement(statements.prepared.remove(execution.getKey()));
+		}
+	}
+
+	private Statements getStatements(Connection con) {
+		Statements statements = (Statements) TransactionSynchronizationManager.getResource(this);
+		if (statements != null) {
+			// e.g. a new transaction with its own connection
+			return statements.connection == con ? statements : null;
+		}
+
+		if (!TransactionSynchronizationManager.isSynchronizationActive()
+				|| !DataSourceUtils.isConnectionTransactional(con, dataSource)) {
+			return null;
+		}
+
+		statements = new Statements(con);
+		TransactionSynchronizationManager.bindResource(this, statements);
+		TransactionSynchronizationManager.registerSynchronization(statements);
+		return statements;
+	}
+
+	private class Statements extends TransactionSynchronizationAdapter {
+
+		private final Connection connection;
+		private final Map<String, PreparedStatement> prepared = new HashMap<>();
+
+		Statements(Connection connection) {
+			this.connection = connection;
+		}
+
+		@Override
+		public void beforeCompletion() {
+			TransactionSynchronizationManager.unbindResourceIfPossible(PeltasStatementCache.this);
+			for (PreparedStatement ps : prepared.values()) {
+				JdbcUtils.closeStatement(ps);
+			}
+			prepared.clear();
+		}
+	}
+}
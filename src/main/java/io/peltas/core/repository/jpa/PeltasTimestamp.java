@@ -43,6 +43,14 @@ public class PeltasTimestamp implements Serializable {
 	@Column(nullable = false)
 	private String ref;
 
+	private Long lastTxnId;
+
+	private Long lastNodeId;
+
+	private Long processedCount;
+
+	private Long windowSize;
+
 	public PeltasTimestamp() {
 	}
 
@@ -68,6 +76,38 @@ public class PeltasTimestamp implements Serializable {
 		this.ref = ref;
 	}
 
+	public Long getLastTxnId() {
+		return lastTxnId;
+	}
+
+	public void setLastTxnId(Long lastTxnId) {
+		this.lastTxnId = lastTxnId;
+	}
+
+	public Long getLastNodeId() {
+		return lastNodeId;
+	}
+
+	public void setLastNodeId(Long lastNodeId) {
+		this.lastNodeId = lastNodeId;
+	}
+
+	public Long getProcessedCount() {
+		return processedCount;
+	}
+
+	public void setProcessedCount(Long processedCount) {
+		this.processedCount = processedCount;
+	}
+
+	public Long getWindowSize() {
+		return windowSize;
+	}
+
+	public void setWindowSize(Long windowSize) {
+		this.windowSize = windowSize;
+	}
+
 	public String getApplicationName() {
 		return applicationName;
 	}
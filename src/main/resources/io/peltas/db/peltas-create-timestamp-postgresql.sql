@@ -3,6 +3,10 @@ CREATE TABLE peltas_timestamp
   access timestamp without time zone NOT NULL,
   application_name character varying(255) NOT NULL,
   ref character varying(255) NOT NULL,
+  last_txn_id bigint,
+  last_node_id bigint,
+  processed_count bigint,
+  window_size bigint,
   CONSTRAINT peltas_timestamp_pk PRIMARY KEY (application_name),
   CONSTRAINT peltas_timestamp_unique UNIQUE (ref, application_name)
 )
@@ -0,0 +1,12 @@
+ALTER TABLE peltas_timestamp ADD COLUMN IF NOT EXISTS last_txn_id bigint;
+ALTER TABLE peltas_timestamp ADD COLUMN IF NOT EXISTS last_node_id bigint;
+ALTER TABLE peltas_timestamp ADD COLUMN IF NOT EXISTS processed_count bigint;
+ALTER TABLE peltas_timestamp ADD COLUMN IF NOT EXISTS window_size bigint;
+
+UPDATE peltas_timestamp
+SET
+  last_txn_id = split_part(split_part(ref, '___', 1), ';', 1)::bigint,
+  last_node_id = split_part(split_part(ref, '___', 1), ';', 2)::bigint,
+  processed_count = split_part(ref, '___', 2)::bigint
+WHERE processed_count IS NULL
+  AND ref ~ '^[0-9]+;[0-9]+___[0-9]+$';
@@ -0,0 +1,142 @@
+/**
+ * Copyright 2019 Pleo Soft d.o.o. (pleosoft.com)
+
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.peltas.alfresco;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.mock.http.client.MockClientHttpResponse;
+import org.springframework.test.web.client.ExpectedCount;
+import org.springframework.test.web.client.MockRestServiceServer;
+import org.springframework.test.web.client.match.MockRestRequestMatchers;
+import org.springframework.test.web.client.response.MockRestResponseCreators;
+import org.springframework.web.client.RestTemplate;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.peltas.boot.PeltasProperties;
+import io.peltas.core.PeltasEntry;
+import io.peltas.core.repository.TxDataRepository;
+import io.peltas.core.repository.jpa.PeltasTimestamp;
+
+public class AlfrescoNodeMetadataExtractorTest {
+
+	private static final String METADATA = "{\"nodes\": ["
+			+ "{\"id\": 1, \"txnId\": 10, \"nodeRef\": \"workspace://SpacesStore/a\", \"type\": \"cm:content\","
+			+ " \"properties\": {\"cm:name\": \"a.txt\", \"cm:title\": {\"en\": \"A\"}}, \"aspects\": [\"cm:titled\"],"
+			+ " \"unknown\": [1, {\"x\": 2}]},"
+			+ "{\"id\": 2, \"txnId\": 11, \"nodeRef\": \"workspace://SpacesStore/b\", \"type\": \"cm:folder\"}"
+			+ "], \"ignored\": {\"nodes\": 3}}";
+
+	private final ObjectMapper objectMapper = new ObjectMapper()
+			.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+
+	@Test
+	public void streamsEveryNode() throws Exception {
+		List<AlfrescoNodeMetadata> nodes = new ArrayList<>();
+		Integer count = new AlfrescoNodeMetadataExtractor(objectMapper, nodes::add)
+				.extractData(new MockClientHttpResponse(METADATA.getBytes(StandardCharsets.UTF_8), HttpStatus.OK));
+
+		assertThat(count).isEqualTo(2);
+		assertThat(nodes).extracting(AlfrescoNodeMetadata::getId).containsExactly(1L, 2L);
+		assertThat(nodes.get(0).getProperties()).containsEntry("cm:name", "a.txt");
+		assertThat(nodes.get(0).getAspects()).containsExactly("cm:titled");
+		assertThat(nodes.get(1).getProperties()).isNull();
+	}
+
+	@Test
+	public void emptyResponse() throws Exception {
+		List<AlfrescoNodeMetadata> nodes = new ArrayList<>();
+		Integer count = new AlfrescoNodeMetadataExtractor(objectMapper, nodes::add)
+				.extractData(new MockClientHttpResponse(new byte[0], HttpStatus.OK));
+
+		assertThat(count).isEqualTo(0);
+		assertThat(nodes).isEmpty();
+	}
+
+	@Test
+	public void streamingReaderReadsTheSameEntries() throws Exception {
+		assertThat(readEntries(true)).usingElementComparatorOnFields("id", "values")
+				.containsExactlyElementsOf(readEntries(false));
+	}
+
+	private List<PeltasEntry> readEntries(boolean streaming) throws Exception {
+		RestTemplate restTemplate = new RestTemplate();
+		MockRestServiceServer server = MockRestServiceServer.bindTo(restTemplate).ignoreExpectOrder(true).build();
+
+		PeltasProperties properties = new PeltasProperties();
+		properties.setHost("http://alfresco");
+		properties.setServiceUrl("solr");
+		properties.getReader().setStreaming(streaming);
+
+		server.expect(ExpectedCount.manyTimes(),
+				MockRestRequestMatchers.requestTo("http://alfresco/solr/transactions?minTxnId=1&maxResults=1"))
+				.andRespond(MockRestResponseCreators.withSuccess("{\"maxTxnId\": 11}", MediaType.APPLICATION_JSON));
+		server.expect(ExpectedCount.once(), MockRestRequestMatchers.requestTo("http://alfresco/solr/nodes"))
+				.andRespond(MockRestResponseCreators.withSuccess("{\"nodes\": ["
+						+ "{\"id\": 1, \"txnId\": 10, \"nodeRef\": \"workspace://SpacesStore/a\", \"status\": \"u\"},"
+						+ "{\"id\": 2, \"txnId\": 11, \"nodeRef\": \"workspace://SpacesStore/b\", \"status\": \"u\"},"
+						+ "{\"id\": 3, \"txnId\": 11, \"nodeRef\": \"workspace://SpacesStore/c\", \"status\": \"d\"}"
+						+ "]}", MediaType.APPLICATION_JSON));
+		server.expect(ExpectedCount.once(), MockRestRequestMatchers.requestTo("http://alfresco/solr/metadata"))
+				.andExpect(MockRestRequestMatchers.method(HttpMethod.POST))
+				.andRespond(MockRestResponseCreators.withSuccess(METADATA, MediaType.APPLICATION_JSON));
+
+		AlfrescoWorkspaceRestReader reader = new AlfrescoWorkspaceRestReader(restTemplate, properties,
+				new NoCheckpointRepository(), "test", 10L, 11L);
+		reader.afterPropertiesSet();
+		reader.open(new ExecutionContext());
+
+		List<PeltasEntry> entries = new ArrayList<>();
+		for (int i = 0; i < 3; i++) {
+			entries.add(reader.read());
+		}
+		reader.close();
+		server.verify();
+
+		assertThat(entries).extracting(PeltasEntry::getId).containsExactly("10;1", "11;2", "11;3");
+		@SuppressWarnings("unchecked")
+		Map<String, Object> properties0 = (Map<String, Object>) entries.get(0).getValues()
+				.get("/alfresco-workspace/transaction/properties/add");
+		assertThat(properties0).containsEntry("cm:name", "a.txt");
+		assertThat(entries.get(2).getValues()).containsEntry("/alfresco-workspace/transaction/action", "NODE-DELETED");
+		return entries;
+	}
+
+	private static class NoCheckpointRepository implements TxDataRepository {
+
+		@Override
+		public PeltasTimestamp writeTx(PeltasTimestamp ts) {
+			return ts;
+		}
+
+		@Override
+		public PeltasTimestamp readTx(String applicationName) {
+			return null;
+		}
+	}
+}
@@ -0,0 +1,164 @@
+/**
+ * Copyright 2019 Pleo Soft d.o.o. (pleosoft.com)
+
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.peltas.alfresco;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.client.ExpectedCount;
+import org.springframework.test.web.client.MockRestServiceServer;
+import org.springframework.test.web.client.match.MockRestRequestMatchers;
+import org.springframework.test.web.client.response.MockRestResponseCreators;
+import org.springframework.web.client.RestTemplate;
+
+import io.peltas.boot.PeltasProperties;
+import io.peltas.core.PeltasEntry;
+import io.peltas.core.repository.TxDataRepository;
+import io.peltas.core.repository.jpa.PeltasTimestamp;
+
+public class AlfrescoTailFollowerTest {
+
+	@Test
+	public void maxTxnIdExpires() {
+		AtomicLong now = new AtomicLong(1000);
+		AlfrescoTailFollower follower = new AlfrescoTailFollower(100, 10, 80, now::get);
+
+		assertThat(follower.getMaxTxnId()).isNull();
+		follower.setMaxTxnId(42L);
+		assertThat(follower.getMaxTxnId()).isEqualTo(42L);
+
+		now.addAndGet(100);
+		assertThat(follower.getMaxTxnId()).isNull();
+	}
+
+	@Test
+	public void backoffDoublesUntilProgress() {
+		AtomicLong now = new AtomicLong(1000);
+		AlfrescoTailFollower follower = new AlfrescoTailFollower(100, 10, 80, now::get);
+
+		assertThat(follower.isIdle()).isFalse();
+		long[] expected = { 10, 20, 40, 80, 80 };
+		for (long backoff : expected) {
+			follower.onCaughtUp();
+			assertThat(follower.getBackoff()).isEqualTo(backoff);
+			assertThat(follower.isIdle()).isTrue();
+		}
+
+		now.addAndGet(80);
+		assertThat(follower.isIdle()).isFalse();
+
+		follower.onCaughtUp();
+		follower.onProgress();
+		assertThat(follower.isIdle()).isFalse();
+		follower.onCaughtUp();
+		assertThat(follower.getBackoff()).isEqualTo(10);
+	}
+
+	@Test
+	public void emptyWindowJumpsToTheNextTransaction() throws Exception {
+		RestTemplate restTemplate = new RestTemplate();
+		MockRestServiceServer server = MockRestServiceServer.bindTo(restTemplate).ignoreExpectOrder(true).build();
+
+		server.expect(ExpectedCount.once(),
+				MockRestRequestMatchers.requestTo("http://alfresco/solr/transactions?minTxnId=1&maxResults=1"))
+				.andRespond(MockRestResponseCreators.withSuccess("{\"maxTxnId\": 500, \"transactions\": [{\"id\": 1}]}",
+						MediaType.APPLICATION_JSON));
+		server.expect(ExpectedCount.once(),
+				MockRestRequestMatchers.requestTo("http://alfresco/solr/transactions?minTxnId=7&maxResults=1"))
+				.andRespond(MockRestResponseCreators.withSuccess(
+						"{\"maxTxnId\": 500, \"transactions\": [{\"id\": 480}]}", MediaType.APPLICATION_JSON));
+		server.expect(ExpectedCount.once(), MockRestRequestMatchers.requestTo("http://alfresco/solr/nodes"))
+				.andExpect(MockRestRequestMatchers.jsonPath("$.fromTxnId").value(1))
+				.andRespond(MockRestResponseCreators.withSuccess("{\"nodes\": []}", MediaType.APPLICATION_JSON));
+		server.expect(ExpectedCount.once(), MockRestRequestMatchers.requestTo("http://alfresco/solr/nodes"))
+				.andExpect(MockRestRequestMatchers.jsonPath("$.fromTxnId").value(480))
+				.andRespond(MockRestResponseCreators.withSuccess(
+						"{\"nodes\": [{\"id\": 7, \"txnId\": 481, \"nodeRef\": \"workspace://SpacesStore/a\", \"status\": \"u\"}]}",
+						MediaType.APPLICATION_JSON));
+		server.expect(ExpectedCount.once(), MockRestRequestMatchers.requestTo("http://alfresco/solr/metadata"))
+				.andRespond(MockRestResponseCreators.withSuccess(
+						"{\"nodes\": [{\"id\": 7, \"txnId\": 481, \"nodeRef\": \"workspace://SpacesStore/a\"}]}",
+						MediaType.APPLICATION_JSON));
+
+		AlfrescoWorkspaceRestReader reader = createReader(restTemplate);
+		reader.open(new ExecutionContext());
+
+		PeltasEntry entry = reader.read();
+		reader.close();
+		server.verify();
+
+		assertThat(entry.getId()).isEqualTo("481;7");
+		assertThat(reader.getTailFollower().isIdle()).isFalse();
+	}
+
+	@Test
+	public void caughtUpReaderStaysIdle() throws Exception {
+		RestTemplate restTemplate = new RestTemplate();
+		MockRestServiceServer server = MockRestServiceServer.bindTo(restTemplate).ignoreExpectOrder(true).build();
+
+		server.expect(ExpectedCount.once(),
+				MockRestRequestMatchers.requestTo("http://alfresco/solr/transactions?minTxnId=1&maxResults=1"))
+				.andRespond(MockRestResponseCreators.withSuccess("{\"maxTxnId\": 3, \"transactions\": [{\"id\": 1}]}",
+						MediaType.APPLICATION_JSON));
+		server.expect(ExpectedCount.once(), MockRestRequestMatchers.requestTo("http://alfresco/solr/nodes"))
+				.andRespond(MockRestResponseCreators.withSuccess("{\"nodes\": []}", MediaType.APPLICATION_JSON));
+
+		AlfrescoWorkspaceRestReader reader = createReader(restTemplate);
+		reader.open(new ExecutionContext());
+		assertThat(reader.read()).isNull();
+		reader.close();
+
+		assertThat(reader.getTailFollower().isIdle()).isTrue();
+
+		// the next run does not reach the repository while idle
+		reader.open(new ExecutionContext());
+		assertThat(reader.read()).isNull();
+		reader.close();
+		server.verify();
+	}
+
+	private AlfrescoWorkspaceRestReader createReader(RestTemplate restTemplate) throws Exception {
+		PeltasProperties properties = new PeltasProperties();
+		properties.setHost("http://alfresco");
+		properties.setServiceUrl("solr");
+		properties.getReader().setTailFollow(true);
+		properties.getReader().setIdleBackoffMin(60000L);
+		properties.getReader().setIdleBackoffMax(60000L);
+
+		AlfrescoWorkspaceRestReader reader = new AlfrescoWorkspaceRestReader(restTemplate, properties,
+				new NoCheckpointRepository(), "test");
+		reader.afterPropertiesSet();
+		return reader;
+	}
+
+	private static class NoCheckpointRepository implements TxDataRepository {
+
+		@Override
+		public PeltasTimestamp writeTx(PeltasTimestamp ts) {
+			return ts;
+		}
+
+		@Override
+		public PeltasTimestamp readTx(String applicationName) {
+			return null;
+		}
+	}
+}
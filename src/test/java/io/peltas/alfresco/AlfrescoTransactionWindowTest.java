@@ -0,0 +1,67 @@
+/**
+ * Copyright 2019 Pleo Soft d.o.o. (pleosoft.com)
+
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.peltas.alfresco;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class AlfrescoTransactionWindowTest {
+
+	@Test
+	public void emptyWindows_shouldGrowUpToMax() {
+		AlfrescoTransactionWindow window = new AlfrescoTransactionWindow(5, 100, 1000);
+		assertThat(window.getSize()).isEqualTo(5);
+
+		window.onWindowFetched(0);
+		assertThat(window.getSize()).isEqualTo(10);
+
+		for (int i = 0; i < 10; i++) {
+			window.onWindowFetched(0);
+		}
+		assertThat(window.getSize()).isEqualTo(100);
+	}
+
+	@Test
+	public void denseWindow_shouldShrinkTowardsTarget() {
+		AlfrescoTransactionWindow window = new AlfrescoTransactionWindow(5, 1000, 100);
+		window.setSize(800);
+
+		window.onWindowFetched(400);
+		assertThat(window.getSize()).isEqualTo(200);
+
+		window.onWindowFetched(100000);
+		assertThat(window.getSize()).isEqualTo(5);
+	}
+
+	@Test
+	public void windowNearTarget_shouldKeepItsSize() {
+		AlfrescoTransactionWindow window = new AlfrescoTransactionWindow(5, 1000, 100);
+		window.setSize(50);
+
+		window.onWindowFetched(80);
+		assertThat(window.getSize()).isEqualTo(50);
+	}
+
+	@Test
+	public void invalidBounds_shouldFail() {
+		Assertions.assertThrows(IllegalArgumentException.class, () -> {
+			new AlfrescoTransactionWindow(10, 5, 100);
+		});
+	}
+}
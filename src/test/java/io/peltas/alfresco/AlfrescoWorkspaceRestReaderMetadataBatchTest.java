@@ -0,0 +1,123 @@
+/**
+ * Copyright 2019 Pleo Soft d.o.o. (pleosoft.com)
+
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.peltas.alfresco;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.http.MediaType;
+import org.springframework.mock.http.client.MockClientHttpRequest;
+import org.springframework.test.web.client.ExpectedCount;
+import org.springframework.test.web.client.MockRestServiceServer;
+import org.springframework.test.web.client.match.MockRestRequestMatchers;
+import org.springframework.test.web.client.response.MockRestResponseCreators;
+import org.springframework.web.client.RestTemplate;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.peltas.boot.PeltasProperties;
+import io.peltas.core.PeltasEntry;
+import io.peltas.core.repository.TxDataRepository;
+import io.peltas.core.repository.jpa.PeltasTimestamp;
+
+public class AlfrescoWorkspaceRestReaderMetadataBatchTest {
+
+	@Test
+	public void batchesAreMergedInTxnAndNodeOrder() throws Exception {
+		assertThat(readEntries(false)).extracting(PeltasEntry::getId).containsExactly("10;3", "11;1", "11;2", "11;4");
+	}
+
+	@Test
+	public void streamedBatchesAreMergedInTxnAndNodeOrder() throws Exception {
+		assertThat(readEntries(true)).extracting(PeltasEntry::getId).containsExactly("10;3", "11;1", "11;2", "11;4");
+	}
+
+	private List<PeltasEntry> readEntries(boolean streaming) throws Exception {
+		RestTemplate restTemplate = new RestTemplate();
+		MockRestServiceServer server = MockRestServiceServer.bindTo(restTemplate).ignoreExpectOrder(true).build();
+
+		PeltasProperties properties = new PeltasProperties();
+		properties.setHost("http://alfresco");
+		properties.setServiceUrl("solr");
+		properties.getReader().setStreaming(streaming);
+		properties.getReader().setMetadataBatchSize(2);
+		properties.getReader().setMetadataParallelism(2);
+
+		server.expect(ExpectedCount.manyTimes(),
+				MockRestRequestMatchers.requestTo("http://alfresco/solr/transactions?minTxnId=1&maxResults=1"))
+				.andRespond(MockRestResponseCreators.withSuccess("{\"maxTxnId\": 11}", MediaType.APPLICATION_JSON));
+		server.expect(ExpectedCount.once(), MockRestRequestMatchers.requestTo("http://alfresco/solr/nodes"))
+				.andRespond(MockRestResponseCreators.withSuccess("{\"nodes\": ["
+						+ "{\"id\": 1, \"txnId\": 11, \"nodeRef\": \"workspace://SpacesStore/a\", \"status\": \"u\"},"
+						+ "{\"id\": 3, \"txnId\": 10, \"nodeRef\": \"workspace://SpacesStore/c\", \"status\": \"u\"},"
+						+ "{\"id\": 4, \"txnId\": 11, \"nodeRef\": \"workspace://SpacesStore/d\", \"status\": \"d\"},"
+						+ "{\"id\": 2, \"txnId\": 11, \"nodeRef\": \"workspace://SpacesStore/b\", \"status\": \"u\"}"
+						+ "]}", MediaType.APPLICATION_JSON));
+		// nodes sorted by txnId: 3, 1, 4, 2 -> batches [3, 1] and [4, 2], answered in reverse node order
+		// without the deleted node 4
+		server.expect(ExpectedCount.times(2), MockRestRequestMatchers.requestTo("http://alfresco/solr/metadata"))
+				.andExpect(MockRestRequestMatchers.jsonPath("$.nodeIds.length()").value(2))
+				.andRespond(request -> {
+					JsonNode nodeIds = new ObjectMapper()
+							.readTree(((MockClientHttpRequest) request).getBodyAsString()).get("nodeIds");
+					StringBuilder nodes = new StringBuilder();
+					for (int i = nodeIds.size() - 1; i >= 0; i--) {
+						long id = nodeIds.get(i).asLong();
+						if (id == 4) {
+							continue;
+						}
+						nodes.append(nodes.length() > 0 ? "," : "").append("{\"id\": ").append(id)
+								.append(", \"txnId\": ").append(id == 3 ? 10 : 11)
+								.append(", \"nodeRef\": \"workspace://SpacesStore/").append(id).append("\"}");
+					}
+					return MockRestResponseCreators
+							.withSuccess("{\"nodes\": [" + nodes + "]}", MediaType.APPLICATION_JSON)
+							.createResponse(request);
+				});
+
+		AlfrescoWorkspaceRestReader reader = new AlfrescoWorkspaceRestReader(restTemplate, properties,
+				new NoCheckpointRepository(), "test", 10L, 11L);
+		reader.afterPropertiesSet();
+		reader.open(new ExecutionContext());
+
+		List<PeltasEntry> entries = new ArrayList<>();
+		for (int i = 0; i < 4; i++) {
+			entries.add(reader.read());
+		}
+		reader.close();
+		server.verify();
+		return entries;
+	}
+
+	private static class NoCheckpointRepository implements TxDataRepository {
+
+		@Override
+		public PeltasTimestamp writeTx(PeltasTimestamp ts) {
+			return ts;
+		}
+
+		@Override
+		public PeltasTimestamp readTx(String applicationName) {
+			return null;
+		}
+	}
+}
@@ -0,0 +1,170 @@
+/**
+ * Copyright 2019 Pleo Soft d.o.o. (pleosoft.com)
+
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.peltas.alfresco;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+
+import java.time.Duration;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.client.ExpectedCount;
+import org.springframework.test.web.client.MockRestServiceServer;
+import org.springframework.test.web.client.match.MockRestRequestMatchers;
+import org.springframework.test.web.client.response.MockRestResponseCreators;
+import org.springframework.web.client.RestTemplate;
+
+import io.peltas.boot.PeltasProperties;
+import io.peltas.core.PeltasEntry;
+import io.peltas.core.repository.TxDataRepository;
+import io.peltas.core.repository.jpa.PeltasTimestamp;
+
+public class AlfrescoWorkspaceRestReaderPrefetchTest {
+
+	private static final Duration TIMEOUT = Duration.ofSeconds(10);
+
+	private static final String NODES = "{\"nodes\": [{\"id\": 1, \"txnId\": 11, "
+			+ "\"nodeRef\": \"workspace://SpacesStore/a\", \"status\": \"u\"}]}";
+
+	@Test
+	public void endOfRangeDoesNotBlock() throws Exception {
+		RestTemplate restTemplate = new RestTemplate();
+		MockRestServiceServer server = mockServer(restTemplate);
+		server.expect(ExpectedCount.once(), MockRestRequestMatchers.requestTo("http://alfresco/solr/nodes"))
+				.andExpect(MockRestRequestMatchers.jsonPath("$.fromTxnId").value(11))
+				.andRespond(MockRestResponseCreators.withSuccess(NODES, MediaType.APPLICATION_JSON));
+
+		AlfrescoWorkspaceRestReader reader = openReader(restTemplate, 1, 15L);
+		assertTimeoutPreemptively(TIMEOUT, () -> {
+			PeltasEntry entry = reader.read();
+			assertThat(entry).isNotNull();
+			assertThat(entry.getId()).isEqualTo("11;1");
+			assertThat(reader.read()).isNull();
+			assertThat(reader.read()).isNull();
+		});
+		reader.close();
+		server.verify();
+	}
+
+	@Test
+	public void closeRestartsFromCheckpoint() throws Exception {
+		RestTemplate restTemplate = new RestTemplate();
+		MockRestServiceServer server = mockServer(restTemplate);
+		server.expect(ExpectedCount.times(2), MockRestRequestMatchers.requestTo("http://alfresco/solr/nodes"))
+				.andExpect(MockRestRequestMatchers.jsonPath("$.fromTxnId").value(11))
+				.andRespond(MockRestResponseCreators.withSuccess(NODES, MediaType.APPLICATION_JSON));
+
+		AlfrescoWorkspaceRestReader reader = openReader(restTemplate, 1, 15L);
+		assertTimeoutPreemptively(TIMEOUT, () -> {
+			assertThat(reader.read()).isNotNull();
+			assertThat(reader.read()).isNull();
+		});
+		// nothing was written, the drained range is read again after a restart
+		reader.close();
+		reader.open(new ExecutionContext());
+		assertTimeoutPreemptively(TIMEOUT, () -> {
+			assertThat(reader.read()).isNotNull();
+			assertThat(reader.read()).isNull();
+		});
+		reader.close();
+		server.verify();
+	}
+
+	@Test
+	public void errorIsHandedOver() throws Exception {
+		RestTemplate restTemplate = new RestTemplate();
+		MockRestServiceServer server = mockServer(restTemplate);
+		server.expect(ExpectedCount.once(), MockRestRequestMatchers.requestTo("http://alfresco/solr/nodes"))
+				.andRespond(MockRestResponseCreators.withServerError());
+
+		AlfrescoWorkspaceRestReader reader = openReader(restTemplate, 2, 15L);
+		assertTimeoutPreemptively(TIMEOUT, () -> {
+			assertThrows(Exception.class, reader::read);
+			// the failure sticks until the reader is reopened
+			assertThrows(Exception.class, reader::read);
+		});
+		reader.close();
+		server.verify();
+	}
+
+	@Test
+	public void errorIsHandedOverWhenQueueIsFull() throws Exception {
+		RestTemplate restTemplate = new RestTemplate();
+		MockRestServiceServer server = mockServer(restTemplate);
+		server.expect(ExpectedCount.once(), MockRestRequestMatchers.requestTo("http://alfresco/solr/nodes"))
+				.andRespond(MockRestResponseCreators.withSuccess(NODES, MediaType.APPLICATION_JSON));
+		server.expect(ExpectedCount.once(), MockRestRequestMatchers.requestTo("http://alfresco/solr/nodes"))
+				.andRespond(MockRestResponseCreators.withServerError());
+
+		// the first window fills the queue before the second one fails
+		AlfrescoWorkspaceRestReader reader = openReader(restTemplate, 1, 1000L);
+		assertTimeoutPreemptively(TIMEOUT, () -> {
+			assertThrows(Exception.class, () -> {
+				while (reader.read() != null) {
+					// the first window may be handed over or dropped for the error
+				}
+			});
+			assertThrows(Exception.class, reader::read);
+		});
+		reader.close();
+		server.verify();
+	}
+
+	private MockRestServiceServer mockServer(RestTemplate restTemplate) {
+		MockRestServiceServer server = MockRestServiceServer.bindTo(restTemplate).ignoreExpectOrder(true).build();
+		server.expect(ExpectedCount.manyTimes(),
+				MockRestRequestMatchers.requestTo("http://alfresco/solr/transactions?minTxnId=1&maxResults=1"))
+				.andRespond(MockRestResponseCreators.withSuccess("{\"maxTxnId\": 1000}", MediaType.APPLICATION_JSON));
+		server.expect(ExpectedCount.between(0, 10),
+				MockRestRequestMatchers.requestTo("http://alfresco/solr/metadata"))
+				.andRespond(MockRestResponseCreators.withSuccess("{\"nodes\": [{\"id\": 1, \"txnId\": 11, "
+						+ "\"nodeRef\": \"workspace://SpacesStore/a\"}]}", MediaType.APPLICATION_JSON));
+		return server;
+	}
+
+	private AlfrescoWorkspaceRestReader openReader(RestTemplate restTemplate, int prefetch, Long lastTxId)
+			throws Exception {
+		PeltasProperties properties = new PeltasProperties();
+		properties.setHost("http://alfresco");
+		properties.setServiceUrl("solr");
+		properties.getWindow().setMin(5L);
+		properties.getReader().setPrefetch(prefetch);
+
+		AlfrescoWorkspaceRestReader reader = new AlfrescoWorkspaceRestReader(restTemplate, properties,
+				new NoCheckpointRepository(), "test-1", 11L, lastTxId);
+		reader.afterPropertiesSet();
+		reader.open(new ExecutionContext());
+		return reader;
+	}
+
+	private static class NoCheckpointRepository implements TxDataRepository {
+
+		@Override
+		public PeltasTimestamp writeTx(PeltasTimestamp ts) {
+			return ts;
+		}
+
+		@Override
+		public PeltasTimestamp readTx(String applicationName) {
+			return null;
+		}
+	}
+}
@@ -0,0 +1,80 @@
+/**
+ * Copyright 2019 Pleo Soft d.o.o. (pleosoft.com)
+
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.peltas.alfresco;
+
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.client.ExpectedCount;
+import org.springframework.test.web.client.MockRestServiceServer;
+import org.springframework.test.web.client.match.MockRestRequestMatchers;
+import org.springframework.test.web.client.response.MockRestResponseCreators;
+import org.springframework.web.client.RestTemplate;
+
+import io.peltas.boot.PeltasProperties;
+import io.peltas.core.repository.TxDataRepository;
+import io.peltas.core.repository.jpa.PeltasTimestamp;
+
+public class AlfrescoWorkspaceRestReaderRangeTest {
+
+	@Test
+	public void readsOnlyItsRange() throws Exception {
+		RestTemplate restTemplate = new RestTemplate();
+		MockRestServiceServer server = MockRestServiceServer.bindTo(restTemplate).ignoreExpectOrder(true).build();
+
+		PeltasProperties properties = new PeltasProperties();
+		properties.setHost("http://alfresco");
+		properties.setServiceUrl("solr");
+		properties.getWindow().setMin(10L);
+
+		server.expect(ExpectedCount.manyTimes(),
+				MockRestRequestMatchers.requestTo("http://alfresco/solr/transactions?minTxnId=1&maxResults=1"))
+				.andRespond(MockRestResponseCreators.withSuccess("{\"maxTxnId\": 100}", MediaType.APPLICATION_JSON));
+		server.expect(ExpectedCount.once(), MockRestRequestMatchers.requestTo("http://alfresco/solr/nodes"))
+				.andExpect(MockRestRequestMatchers.method(HttpMethod.POST))
+				.andExpect(MockRestRequestMatchers.jsonPath("$.fromTxnId").value(11))
+				.andExpect(MockRestRequestMatchers.jsonPath("$.toTxnId").value(15))
+				.andRespond(MockRestResponseCreators.withSuccess("{\"nodes\": []}", MediaType.APPLICATION_JSON));
+
+		AlfrescoWorkspaceRestReader reader = new AlfrescoWorkspaceRestReader(restTemplate, properties,
+				new NoCheckpointRepository(), "test-1", 11L, 15L);
+		reader.afterPropertiesSet();
+		reader.open(new ExecutionContext());
+
+		assertNull(reader.read());
+		assertTrue(reader.isRangeCompleted());
+		reader.close();
+		server.verify();
+	}
+
+	private static class NoCheckpointRepository implements TxDataRepository {
+
+		@Override
+		public PeltasTimestamp writeTx(PeltasTimestamp ts) {
+			return ts;
+		}
+
+		@Override
+		public PeltasTimestamp readTx(String applicationName) {
+			return null;
+		}
+	}
+}
@@ -0,0 +1,45 @@
+/**
+ * Copyright 2019 Pleo Soft d.o.o. (pleosoft.com)
+
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.peltas.boot;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.batch.BatchProperties;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+public class PeltasBatchConfigurationExecutorTest {
+
+	private final PeltasBatchConfiguration configuration = new PeltasBatchConfiguration(new BatchProperties(), null,
+			null, null, null) {
+	};
+
+	@Test
+	public void processorExecutorIsShutDown() {
+		PeltasProperties properties = new PeltasProperties();
+		assertThat(configuration.createProcessorExecutor(properties)).isNull();
+
+		properties.getProcessor().setThreads(2);
+		AsyncTaskExecutor executor = configuration.createProcessorExecutor(properties);
+		assertThat(executor).isInstanceOf(ThreadPoolTaskExecutor.class);
+
+		configuration.destroy();
+		assertThat(((ThreadPoolTaskExecutor) executor).getThreadPoolExecutor().isShutdown()).isTrue();
+	}
+}
@@ -0,0 +1,132 @@
+/**
+ * Copyright 2019 Pleo Soft d.o.o. (pleosoft.com)
+
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.peltas.boot;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.batch.BatchProperties;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.client.ExpectedCount;
+import org.springframework.test.web.client.MockRestServiceServer;
+import org.springframework.test.web.client.match.MockRestRequestMatchers;
+import org.springframework.test.web.client.response.MockRestResponseCreators;
+import org.springframework.web.client.RestTemplate;
+
+import io.peltas.core.PeltasException;
+import io.peltas.core.repository.TxDataRepository;
+import io.peltas.core.repository.jpa.PeltasTimestamp;
+
+public class PeltasBatchConfigurationPartitionTest {
+
+	private final MapTxDataRepository repository = new MapTxDataRepository();
+	private final PeltasBatchConfiguration configuration = new PeltasBatchConfiguration(new BatchProperties(), null,
+			null, null, repository) {
+	};
+	private final RestTemplate restTemplate = new RestTemplate();
+	private final PeltasProperties properties = new PeltasProperties();
+
+	public PeltasBatchConfigurationPartitionTest() {
+		properties.setHost("http://alfresco");
+		properties.setServiceUrl("solr");
+		properties.setApplication("test");
+		properties.getPartition().setCount(3);
+	}
+
+	@Test
+	public void splitsFromTheApplicationCheckpoint() throws Exception {
+		PeltasTimestamp checkpoint = new PeltasTimestamp("test", "101;7___5", new Date());
+		checkpoint.setLastTxnId(101L);
+		checkpoint.setLastNodeId(7L);
+		checkpoint.setProcessedCount(5L);
+		repository.writeTx(checkpoint);
+
+		MockRestServiceServer server = expectMaxTxnId(400);
+		assertThat(configuration.getPartitionFirstTxIds(restTemplate, properties)).containsExactly(101, 201, 301);
+		server.verify();
+
+		PeltasTimestamp seed = repository.readTx("test-0");
+		assertThat(seed.getLastTxnId()).isEqualTo(101L);
+		assertThat(seed.getLastNodeId()).isEqualTo(7L);
+		assertThat(seed.getProcessedCount()).isEqualTo(5L);
+		assertThat(repository.readTx("test-1")).isNull();
+		assertThat(repository.readTx("test" + PeltasBatchConfiguration.PARTITIONS_SUFFIX).getRef())
+				.isEqualTo("101,201,301");
+	}
+
+	@Test
+	public void splitsFromTheFirstTransaction() throws Exception {
+		MockRestServiceServer server = expectMaxTxnId(10);
+		assertThat(configuration.getPartitionFirstTxIds(restTemplate, properties)).containsExactly(1, 5, 9);
+		server.verify();
+		assertThat(repository.readTx("test-0")).isNull();
+	}
+
+	@Test
+	public void failsWhenTheRepositoryIsUnreachable() throws Exception {
+		MockRestServiceServer server = MockRestServiceServer.bindTo(restTemplate).build();
+		server.expect(ExpectedCount.once(),
+				MockRestRequestMatchers.requestTo("http://alfresco/solr/transactions?minTxnId=1&maxResults=1"))
+				.andRespond(MockRestResponseCreators.withServerError());
+
+		assertThrows(PeltasException.class, () -> configuration.getPartitionFirstTxIds(restTemplate, properties));
+		server.verify();
+		assertThat(repository.readTx("test" + PeltasBatchConfiguration.PARTITIONS_SUFFIX)).isNull();
+		assertThat(repository.readTx("test-0")).isNull();
+	}
+
+	@Test
+	public void keepsTheStoredRanges() throws Exception {
+		repository.writeTx(new PeltasTimestamp("test" + PeltasBatchConfiguration.PARTITIONS_SUFFIX, "1,50,90",
+				new Date()));
+		assertThat(configuration.getPartitionFirstTxIds(restTemplate, properties)).containsExactly(1, 50, 90);
+
+		properties.getPartition().setCount(2);
+		assertThrows(PeltasException.class, () -> configuration.getPartitionFirstTxIds(restTemplate, properties));
+	}
+
+	private MockRestServiceServer expectMaxTxnId(long maxTxnId) {
+		MockRestServiceServer server = MockRestServiceServer.bindTo(restTemplate).build();
+		server.expect(ExpectedCount.once(),
+				MockRestRequestMatchers.requestTo("http://alfresco/solr/transactions?minTxnId=1&maxResults=1"))
+				.andRespond(MockRestResponseCreators.withSuccess("{\"maxTxnId\": " + maxTxnId + "}",
+						MediaType.APPLICATION_JSON));
+		return server;
+	}
+
+	private static class MapTxDataRepository implements TxDataRepository {
+
+		private final Map<String, PeltasTimestamp> timestamps = new HashMap<>();
+
+		@Override
+		public PeltasTimestamp writeTx(PeltasTimestamp ts) {
+			timestamps.put(ts.getApplicationName(), ts);
+			return ts;
+		}
+
+		@Override
+		public PeltasTimestamp readTx(String applicationName) {
+			return timestamps.get(applicationName);
+		}
+	}
+}
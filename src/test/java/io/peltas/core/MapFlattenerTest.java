@@ -0,0 +1,88 @@
+/**
+ * Copyright 2019 Pleo Soft d.o.o. (pleosoft.com)
+
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.peltas.core;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.integration.transformer.ObjectToMapTransformer;
+import org.springframework.messaging.support.GenericMessage;
+
+public class MapFlattenerTest {
+
+	@Test
+	public void nestedKeys() {
+		Map<String, Object> nested = new LinkedHashMap<>();
+		nested.put("x", "1");
+		nested.put("y", Arrays.asList("p", Arrays.asList("q", "r"), Collections.singletonMap("z", "w")));
+		nested.put("array", new String[] { "s", "t" });
+		nested.put("empty", new HashMap<>());
+
+		Map<String, Object> source = new LinkedHashMap<>();
+		source.put("cm:name", "doc.txt");
+		source.put("cm:title", null);
+		source.put("nested", nested);
+
+		Map<String, Object> flattened = new MapFlattener().flatten(source);
+
+		assertThat(flattened).containsOnlyKeys("cm:name", "cm:title", "nested.x", "nested.y[0]", "nested.y[1][0]",
+				"nested.y[1][1]", "nested.y[2].z", "nested.array[0]", "nested.array[1]");
+		assertThat(flattened.get("nested.y[2].z")).isEqualTo("w");
+		assertThat(flattened.get("cm:title")).isNull();
+		assertThat(flattened).isEqualTo(transform(source));
+	}
+
+	@Test
+	public void keyPrefixedValue() {
+		MapFlattener flattener = new MapFlattener(1);
+		Map<String, Object> flattened = new HashMap<>();
+
+		flattener.flatten("item", Collections.singletonMap("a", Collections.singletonMap("b", 1)), flattened);
+		flattener.flatten("plain", "value", flattened);
+
+		assertThat(flattened).containsEntry("item.a.b", 1).containsEntry("plain", "value").hasSize(2);
+		// only item.a is cached, item.a.b is concatenated
+		assertThat(flattener.size()).isEqualTo(1);
+	}
+
+	@Test
+	public void maxSizeBoundsAllKeys() {
+		MapFlattener flattener = new MapFlattener(3);
+		Map<String, Object> flattened = new HashMap<>();
+
+		for (int i = 0; i < 2; i++) {
+			flattener.flatten("first", Arrays.asList("a", "b"), flattened);
+			flattener.flatten("second", Arrays.asList("c", "d"), flattened);
+		}
+
+		assertThat(flattened).containsOnlyKeys("first[0]", "first[1]", "second[0]", "second[1]");
+		assertThat(flattener.size()).isEqualTo(3);
+	}
+
+	@SuppressWarnings("unchecked")
+	private static Map<String, Object> transform(Map<String, Object> source) {
+		ObjectToMapTransformer transformer = new ObjectToMapTransformer();
+		transformer.setShouldFlattenKeys(true);
+		return (Map<String, Object>) transformer.transform(new GenericMessage<>(source)).getPayload();
+	}
+}
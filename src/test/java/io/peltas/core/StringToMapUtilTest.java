@@ -16,6 +16,7 @@
 
 package io.peltas.core;
 
+import java.util.Arrays;
 import java.util.Map;
 
 import org.junit.jupiter.api.Assertions;
@@ -90,4 +91,28 @@ public class StringToMapUtilTest {
 		String someProperty = (String) map.get("{http://www.alfresco.org/model/content/1.0}someProperty");
 		Assertions.assertNull(someProperty);
 	}
-}
\ No newline at end of file
+
+	@Test
+	public void testValuesAndQuirks() {
+		Map<String, Object> map = StringToMapUtil.stringToMap(
+				new StringBuilder("{a={b=1},c=2, d= x=y , e=[1, [2]], f=null, d=last, g=}"), ',');
+
+		Assertions.assertEquals("{b=1}", map.get("a"));
+		// the key starts right after the end of a nested value
+		Assertions.assertEquals("2", map.get(",c"));
+		Assertions.assertEquals("last", map.get("d"));
+		Assertions.assertEquals("[1, [2]]", map.get("e"));
+		Assertions.assertTrue(map.containsKey("f"));
+		Assertions.assertNull(map.get("f"));
+		Assertions.assertFalse(map.containsKey("g"));
+		Assertions.assertEquals(5, map.size());
+	}
+
+	@Test
+	public void testValueAsList() {
+		Assertions.assertEquals(Arrays.asList("a", "", "b", ""), StringToMapUtil.valueAsList(" [a,,b, ] ", ','));
+		Assertions.assertEquals(Arrays.asList("{x=1}", "{y=2}"), StringToMapUtil.valueAsList("[{x=1}, {y=2}]"));
+		Assertions.assertTrue(StringToMapUtil.valueAsList("[]").isEmpty());
+		Assertions.assertTrue(StringToMapUtil.valueAsList("null").isEmpty());
+	}
+}
@@ -0,0 +1,78 @@
+/**
+ * Copyright 2019 Pleo Soft d.o.o. (pleosoft.com)
+
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.peltas.core.batch;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.item.ExecutionContext;
+
+import io.peltas.core.PeltasEntry;
+
+public class PeltasItemReaderTest {
+
+	@Test
+	public void readsInOrderAndRefills() throws Exception {
+		PeltasItemReader reader = new PeltasItemReader("test", entries("a", "b", "c"));
+		reader.open(new ExecutionContext());
+
+		assertEquals("a", reader.read().getId());
+		assertEquals("b", reader.read().getId());
+		assertEquals("c", reader.read().getId());
+		assertNull(reader.read());
+
+		reader.setList(entries("d"));
+		assertEquals("d", reader.read().getId());
+		assertNull(reader.read());
+
+		reader.setList(null);
+		assertNull(reader.read());
+		reader.close();
+	}
+
+	@Test
+	public void largeWindow() throws Exception {
+		List<PeltasEntry> list = new ArrayList<>();
+		for (int i = 0; i < 100_000; i++) {
+			list.add(entry(String.valueOf(i)));
+		}
+
+		PeltasItemReader reader = new PeltasItemReader("test", list);
+		reader.open(new ExecutionContext());
+		for (int i = 0; i < 100_000; i++) {
+			assertEquals(String.valueOf(i), reader.read().getId());
+		}
+		assertNull(reader.read());
+	}
+
+	private static List<PeltasEntry> entries(String... ids) {
+		List<PeltasEntry> list = new ArrayList<>();
+		Arrays.stream(ids).forEach(id -> list.add(entry(id)));
+		return list;
+	}
+
+	private static PeltasEntry entry(String id) {
+		PeltasEntry entry = new PeltasEntry();
+		entry.setId(id);
+		return entry;
+	}
+}
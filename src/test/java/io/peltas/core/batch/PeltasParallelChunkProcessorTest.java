@@ -0,0 +1,124 @@
+/**
+ * Copyright 2019 Pleo Soft d.o.o. (pleosoft.com)
+
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.peltas.core.batch;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.core.ItemProcessListener;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobInstance;
+import org.springframework.batch.core.JobParameters;
+import org.springframework.batch.core.StepContribution;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.step.item.Chunk;
+import org.springframework.batch.item.ItemProcessor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+public class PeltasParallelChunkProcessorTest {
+
+	private final ThreadPoolTaskExecutor taskExecutor = new ThreadPoolTaskExecutor();
+	private final List<Integer> written = Collections.synchronizedList(new ArrayList<>());
+	private final List<String> listened = Collections.synchronizedList(new ArrayList<>());
+
+	public PeltasParallelChunkProcessorTest() {
+		taskExecutor.setCorePoolSize(4);
+		taskExecutor.initialize();
+	}
+
+	@AfterEach
+	public void shutdown() {
+		taskExecutor.shutdown();
+	}
+
+	@Test
+	public void writesInReadOrder() throws Exception {
+		// odd items are filtered, every item takes a random time
+		PeltasParallelChunkProcessor<Integer, Integer> chunkProcessor = chunkProcessor(item -> {
+			Thread.sleep(ThreadLocalRandom.current().nextInt(5));
+			return item % 2 == 0 ? item * 10 : null;
+		});
+
+		StepContribution contribution = contribution();
+		chunkProcessor.process(contribution, chunk(1, 2, 3, 4, 5, 6, 7, 8));
+
+		assertThat(written).containsExactly(20, 40, 60, 80);
+		assertThat(contribution.getFilterCount()).isEqualTo(4);
+		assertThat(contribution.getWriteCount()).isEqualTo(4);
+		assertThat(listened.subList(0, 8)).containsExactly("before 1", "before 2", "before 3", "before 4",
+				"before 5", "before 6", "before 7", "before 8");
+		assertThat(listened.subList(8, 16)).containsExactly("after 1", "after 2", "after 3", "after 4", "after 5",
+				"after 6", "after 7", "after 8");
+	}
+
+	@Test
+	public void firstFailureInReadOrder() {
+		PeltasParallelChunkProcessor<Integer, Integer> chunkProcessor = chunkProcessor(item -> {
+			if (item >= 3) {
+				throw new IllegalStateException("failed " + item);
+			}
+			return item;
+		});
+
+		Chunk<Integer> inputs = chunk(1, 2, 3, 4);
+		assertThatThrownBy(() -> chunkProcessor.process(contribution(), inputs))
+				.isInstanceOf(IllegalStateException.class).hasMessage("failed 3");
+		assertThat(written).isEmpty();
+		assertThat(listened).contains("after 2", "error 3").doesNotContain("error 4");
+	}
+
+	private PeltasParallelChunkProcessor<Integer, Integer> chunkProcessor(
+			ItemProcessor<Integer, Integer> itemProcessor) {
+		PeltasParallelChunkProcessor<Integer, Integer> chunkProcessor = new PeltasParallelChunkProcessor<>(
+				itemProcessor, written::addAll, taskExecutor);
+		chunkProcessor.registerListener(new ItemProcessListener<Integer, Integer>() {
+
+			@Override
+			public void beforeProcess(Integer item) {
+				listened.add("before " + item);
+			}
+
+			@Override
+			public void afterProcess(Integer item, Integer result) {
+				listened.add("after " + item);
+			}
+
+			@Override
+			public void onProcessError(Integer item, Exception e) {
+				listened.add("error " + item);
+			}
+		});
+		return chunkProcessor;
+	}
+
+	private static Chunk<Integer> chunk(Integer... items) {
+		return new Chunk<>(Arrays.asList(items));
+	}
+
+	private static StepContribution contribution() {
+		JobExecution jobExecution = new JobExecution(new JobInstance(1L, "peltas"), new JobParameters());
+		return new StepContribution(new StepExecution("peltas", jobExecution));
+	}
+}
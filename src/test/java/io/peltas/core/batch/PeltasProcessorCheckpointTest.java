@@ -0,0 +1,88 @@
+/**
+ * Copyright 2019 Pleo Soft d.o.o. (pleosoft.com)
+
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.peltas.core.batch;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.scope.context.ChunkContext;
+import org.springframework.batch.core.scope.context.StepContext;
+
+import io.peltas.core.PeltasEntry;
+import io.peltas.core.repository.PeltasCheckpoint;
+import io.peltas.core.repository.TxDataRepository;
+import io.peltas.core.repository.jpa.PeltasTimestamp;
+
+public class PeltasProcessorCheckpointTest {
+
+	@Test
+	public void migratesLegacyRefWithCustomCountFormat() {
+		MapTxDataRepository repository = new MapTxDataRepository();
+		PeltasProcessor processor = new PeltasProcessor("app", repository, null, null, false, null,
+				new PeltasListenerAdapter()) {
+			@Override
+			protected String nodesCountToString(Integer nodesCount) {
+				return "c" + nodesCount;
+			}
+
+			@Override
+			protected Integer nodesCountToInteger(String nodesCount) {
+				return Integer.valueOf(nodesCount.substring(1));
+			}
+		};
+
+		PeltasTimestamp legacy = new PeltasTimestamp("app", "1234;5678___c42", new Date());
+		ChunkContext context = new ChunkContext(new StepContext(new StepExecution("step", new JobExecution(1L))));
+		context.setAttribute("peltasTimestamp", legacy);
+		context.setAttribute(PeltasCheckpoint.CHUNK_ATTRIBUTE, PeltasCheckpoint.of(legacy).withWindowSize(200L));
+
+		PeltasEntry entry = new PeltasEntry();
+		entry.setId("1300;6000");
+		processor.onBeforeProcess(entry);
+		processor.onItemProcessed(entry, null);
+		processor.onAfterWrite(Collections.emptyList(), context);
+
+		PeltasTimestamp written = repository.readTx("app");
+		assertThat(written.getProcessedCount()).isEqualTo(43L);
+		assertThat(written.getRef()).isEqualTo("1300;6000___c43");
+		assertThat(written.getLastTxnId()).isEqualTo(1300L);
+		assertThat(written.getWindowSize()).isEqualTo(200L);
+	}
+
+	private static class MapTxDataRepository implements TxDataRepository {
+
+		private final Map<String, PeltasTimestamp> timestamps = new HashMap<>();
+
+		@Override
+		public PeltasTimestamp writeTx(PeltasTimestamp ts) {
+			timestamps.put(ts.getApplicationName(), ts);
+			return ts;
+		}
+
+		@Override
+		public PeltasTimestamp readTx(String applicationName) {
+			return timestamps.get(applicationName);
+		}
+	}
+}
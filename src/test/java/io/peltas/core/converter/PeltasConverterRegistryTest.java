@@ -0,0 +1,85 @@
+/**
+ * Copyright 2019 Pleo Soft d.o.o. (pleosoft.com)
+
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.peltas.core.converter;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.core.convert.converter.Converter;
+
+import io.peltas.boot.DefaultConvertersConfiguration;
+
+public class PeltasConverterRegistryTest {
+
+	private final DefaultConvertersConfiguration configuration = new DefaultConvertersConfiguration();
+	private final PeltasDateFormats peltasDateFormats = new PeltasDateFormats();
+
+	@Test
+	public void formatAwareConverters() {
+		Converter<?, ?> stringToDate = configuration.stringToDateConverter(peltasDateFormats);
+		Converter<?, ?> dateToString = configuration.dateToStringConverter(peltasDateFormats);
+		Converter<?, ?> mapToCollection = configuration.mapToCollectionConverter();
+		Converter<?, ?> formattedKeys = configuration.mapToFormattedKeyMapConverter();
+
+		PeltasConverterRegistry registry = new PeltasConverterRegistry(
+				Arrays.asList(stringToDate, dateToString, mapToCollection, formattedKeys));
+
+		assertThat(registry.getConverter(String.class, Date.class)).isSameAs(stringToDate);
+		assertThat(registry.getConverter(java.sql.Timestamp.class, String.class)).isSameAs(dateToString);
+		assertThat(registry.getConverter(ArrayList.class, Collection.class)).isSameAs(formattedKeys);
+		// plain converters stay with the ConversionService
+		assertThat(registry.getConverter(java.util.HashMap.class, Collection.class)).isNull();
+		assertThat(registry.getConverter(String.class, String.class)).isNull();
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void formatPassedWithTheConversion() {
+		PeltasConverter<Object, Object> formattedKeys = (PeltasConverter<Object, Object>) configuration
+				.mapToFormattedKeyMapConverter();
+
+		List<Map<String, String>> aspects = new ArrayList<>();
+		aspects.add(Map.of("prefixString", "cm", "localName", "titled"));
+
+		assertThat((Collection<Object>) formattedKeys.convert(aspects, "%s:%s", Arrays.asList("prefixString", "localName")))
+				.containsExactly("cm:titled");
+		assertThat((Collection<Object>) formattedKeys.convert(aspects, "%s", Arrays.asList("localName")))
+				.containsExactly("titled");
+	}
+
+	@Test
+	public void lastRegisteredWins() {
+		PeltasConverter<String, Date> custom = new PeltasConverter<String, Date>() {
+			@Override
+			public Date convert(String source, String format, List<String> formatKeys) {
+				return new Date(1);
+			}
+		};
+
+		PeltasConverterRegistry registry = new PeltasConverterRegistry(
+				Arrays.asList(configuration.stringToDateConverter(peltasDateFormats), custom));
+		assertThat(registry.getConverter(String.class, Date.class)).isSameAs(custom);
+		assertThat(custom.convert("ignored")).isEqualTo(new Date(1));
+	}
+}
@@ -0,0 +1,71 @@
+/**
+ * Copyright 2019 Pleo Soft d.o.o. (pleosoft.com)
+
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.peltas.core.converter;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.text.SimpleDateFormat;
+import java.time.Instant;
+import java.util.Date;
+import java.util.Locale;
+
+import org.junit.jupiter.api.Test;
+
+import io.peltas.core.integration.PeltasConversionException;
+
+public class PeltasDateFormatsTest {
+
+	private final PeltasDateFormats dateFormats = new PeltasDateFormats();
+
+	@Test
+	public void detectsFallbackFormats() throws Exception {
+		assertThat(dateFormats.parse("Thu Jun 14 13:44:58 UTC 2018", null)).isEqualTo(
+				new SimpleDateFormat("EEE MMM dd HH:mm:ss zzz yyyy", Locale.ENGLISH).parse("Thu Jun 14 13:44:58 UTC 2018"));
+		assertThat(dateFormats.parse("2018-07-17T12:32:34.596+0200", null))
+				.isEqualTo(new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss.SSSZ").parse("2018-07-17T12:32:34.596+0200"));
+		assertThat(dateFormats.parse("2018-07-17T12:32:34.596", ""))
+				.isEqualTo(new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss.SSS").parse("2018-07-17T12:32:34.596"));
+		assertThat(dateFormats.parse("2018-07-17T12:32:34.596Z", ""))
+				.isEqualTo(new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss.SSS").parse("2018-07-17T12:32:34.596"));
+	}
+
+	@Test
+	public void ambiguousZoneAbbreviations() throws Exception {
+		assertThat(dateFormats.parse("Mon Jul 20 10:05:10 BST 2020", null))
+				.isEqualTo(Date.from(Instant.parse("2020-07-20T09:05:10Z")));
+		assertThat(dateFormats.parse("Mon Jan 20 10:05:10 IST 2020", null)).isEqualTo(
+				new SimpleDateFormat("EEE MMM dd HH:mm:ss zzz yyyy", Locale.ENGLISH).parse("Mon Jan 20 10:05:10 IST 2020"));
+		assertThat(dateFormats.parse("Mon Jan 20 10:05:10 CST 2020", null)).isEqualTo(
+				new SimpleDateFormat("EEE MMM dd HH:mm:ss zzz yyyy", Locale.ENGLISH).parse("Mon Jan 20 10:05:10 CST 2020"));
+	}
+
+	@Test
+	public void configuredFormat() throws Exception {
+		assertThat(dateFormats.parse("20180614", "yyyyMMdd")).isEqualTo(new SimpleDateFormat("yyyyMMdd").parse("20180614"));
+		assertThrows(PeltasConversionException.class,
+				() -> dateFormats.parse("Thu Jun 14 13:44:58 UTC", "EEE MMM dd HH:mm:ss zzz yyyy"));
+		assertThrows(PeltasConversionException.class, () -> dateFormats.parse("not a date", null));
+	}
+
+	@Test
+	public void format() throws Exception {
+		Date date = new SimpleDateFormat("yyyy-MM-dd HH:mm").parse("2018-06-14 13:44");
+		assertThat(dateFormats.format(date, "yyyyMMdd HH:mm")).isEqualTo("20180614 13:44");
+		assertThat(dateFormats.format(new java.sql.Date(date.getTime()), "yyyyMMdd")).isEqualTo("20180614");
+	}
+}
@@ -0,0 +1,56 @@
+/**
+ * Copyright 2019 Pleo Soft d.o.o. (pleosoft.com)
+
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.peltas.core.converter;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+public class PrefixStringKeyCacheTest {
+
+	private static final String CM = "http://www.alfresco.org/model/content/1.0";
+
+	@Test
+	public void translatesAndCachesQNames() {
+		AtomicInteger lookups = new AtomicInteger();
+		PrefixStringKeyCache cache = new PrefixStringKeyCache(namespace -> {
+			lookups.incrementAndGet();
+			return Collections.singletonMap(CM, "cm").get(namespace);
+		});
+
+		assertThat(cache.toPrefixString("{" + CM + "}created")).isEqualTo("cm:created");
+		assertThat(cache.toPrefixString("{" + CM + "}created")).isEqualTo("cm:created");
+		assertThat(lookups.get()).isEqualTo(1);
+
+		assertThat(cache.toPrefixString("{http://unknown}name")).isEqualTo("null:name");
+		assertThat(cache.toPrefixString("created")).isNull();
+		assertThat(cache.toPrefixString("created")).isNull();
+		assertThat(cache.size()).isEqualTo(3);
+	}
+
+	@Test
+	public void boundedSize() {
+		PrefixStringKeyCache cache = new PrefixStringKeyCache(namespace -> "cm", 2);
+		for (int i = 0; i < 5; i++) {
+			assertThat(cache.toPrefixString("{" + CM + "}name" + i)).isEqualTo("cm:name" + i);
+		}
+		assertThat(cache.size()).isEqualTo(2);
+	}
+}
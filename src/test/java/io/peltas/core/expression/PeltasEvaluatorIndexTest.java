@@ -0,0 +1,215 @@
+/**
+ * Copyright 2019 Pleo Soft d.o.o. (pleosoft.com)
+
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.peltas.core.expression;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.util.StringUtils;
+
+import com.google.common.collect.ImmutableMap;
+
+import io.peltas.core.PeltasEntry;
+import io.peltas.core.integration.PeltasEntryHandler;
+
+public class PeltasEvaluatorIndexTest {
+
+	private static final String ACTION = "/alfresco-access/transaction/action";
+	private static final String TYPE = "/alfresco-access/transaction/type";
+	private static final String ASPECTS = "/alfresco-access/transaction/aspects/add";
+
+	private final PeltasEvaluatorIndex index;
+
+	public PeltasEvaluatorIndexTest() {
+		Map<String, String> evaluators = new LinkedHashMap<>();
+		evaluators.put("updated", ACTION + "=UPDATE");
+		evaluators.put("contentupdated", ACTION + "=UPDATE|" + TYPE + "=cm:content");
+		evaluators.put("contentupdated0", ACTION + "=UPDATE|" + TYPE + "=cm:content");
+		evaluators.put("versioned", ASPECTS + "=contains<>cm:versionable");
+		evaluators.put("typed", TYPE + "|" + ACTION + "=READ");
+		index = new PeltasEvaluatorIndex(evaluators, registry());
+	}
+
+	@Test
+	public void mostPredicatesWin() {
+		assertThat(index.findBestMatchHandler(entry(ACTION, "UPDATE", TYPE, "cm:content")))
+				.isEqualTo("contentupdated");
+		assertThat(index.findBestMatchHandler(entry(ACTION, "UPDATE", TYPE, "cm:folder"))).isEqualTo("updated");
+	}
+
+	@Test
+	public void unindexedPredicates() {
+		assertThat(index.findBestMatchHandler(entry(ASPECTS, "[cm:versionable, cm:titled]")))
+				.isEqualTo("versioned");
+		assertThat(index.findBestMatchHandler(entry(ACTION, "READ", TYPE, "cm:folder"))).isEqualTo("typed");
+		assertThat(index.findBestMatchHandler(entry(ACTION, "READ"))).isNull();
+	}
+
+	@Test
+	public void firstOfEquallyRankedHandlersWins() {
+		Map<String, String> evaluators = new LinkedHashMap<>();
+		evaluators.put("second", ACTION + "=UPDATE");
+		evaluators.put("first", ACTION + "=UPDATE");
+		PeltasEvaluatorIndex ordered = new PeltasEvaluatorIndex(evaluators, registry());
+		assertThat(ordered.findBestMatchHandler(entry(ACTION, "UPDATE"))).isEqualTo("second");
+	}
+
+	@Test
+	public void partialMatchWithMorePredicatesWins() {
+		// the three predicate handler matches two of them, more than the complete match of "updated"
+		Map<String, String> evaluators = new LinkedHashMap<>();
+		evaluators.put("updated", ACTION + "=UPDATE");
+		evaluators.put("contentread", ACTION + "=READ|" + TYPE + "=cm:content|" + ASPECTS);
+		PeltasEvaluatorIndex partial = new PeltasEvaluatorIndex(evaluators, registry());
+		assertThat(partial.findBestMatchHandler(entry(ACTION, "UPDATE", TYPE, "cm:content", ASPECTS, "[]")))
+				.isNull();
+		assertThat(partial.findBestMatchHandler(entry(ACTION, "UPDATE", TYPE, "cm:content"))).isEqualTo("updated");
+	}
+
+	@Test
+	public void matchesTheLinearScan() {
+		String[] keys = { ACTION, TYPE, ASPECTS, "/alfresco-access/transaction/user" };
+		String[] values = { "UPDATE", "READ", "cm:content", "cm:folder" };
+		Random random = new Random(42);
+		EvaluatorExpressionRegistry registry = registry();
+
+		for (int run = 0; run < 200; run++) {
+			Map<String, String> evaluators = new HashMap<>();
+			int handlers = 1 + random.nextInt(8);
+			for (int handler = 0; handler < handlers; handler++) {
+				List<String> predicates = new ArrayList<>();
+				int size = 1 + random.nextInt(3);
+				for (int predicate = 0; predicate < size; predicate++) {
+					String key = keys[random.nextInt(keys.length)];
+					String value = values[random.nextInt(values.length)];
+					switch (random.nextInt(3)) {
+					case 0:
+						predicates.add(key);
+						break;
+					case 1:
+						predicates.add(key + "=contains<>" + value);
+						break;
+					default:
+						predicates.add(key + "=" + value);
+					}
+				}
+				evaluators.put("handler" + handler, String.join("|", predicates));
+			}
+			PeltasEvaluatorIndex randomIndex = new PeltasEvaluatorIndex(evaluators, registry);
+
+			for (int entries = 0; entries < 20; entries++) {
+				List<String> keyValues = new ArrayList<>();
+				for (String key : keys) {
+					if (random.nextBoolean()) {
+						keyValues.add(key);
+						keyValues.add(values[random.nextInt(values.length)]);
+					}
+				}
+				PeltasEntry entry = entry(keyValues.toArray(new String[keyValues.size()]));
+				assertThat(randomIndex.findBestMatchHandler(entry)).as("%s for %s", evaluators, keyValues)
+						.isEqualTo(linearScan(evaluators, registry, entry));
+			}
+		}
+	}
+
+	@Test
+	public void noMatch() {
+		assertThat(index.findBestMatchHandler(entry(ACTION, "DELETE", TYPE, "cm:content"))).isNull();
+		assertThat(index.findBestMatchHandler(entry())).isNull();
+	}
+
+	/**
+	 * The matching every handler is evaluated with before the index existed.
+	 */
+	private static String linearScan(Map<String, String> evaluators, EvaluatorExpressionRegistry registry,
+			PeltasEntry auditEntry) {
+		LinkedMultiValueMap<String, Integer> matchMap = new LinkedMultiValueMap<>();
+		Map<String, Integer> highestEvaluatorRank = new HashMap<>();
+		for (Entry<String, String> evaluatorEntry : evaluators.entrySet()) {
+			List<String> handlerEvaluators = new ArrayList<>();
+			String evaluator = evaluatorEntry.getValue();
+			if (evaluator.contains("|")) {
+				handlerEvaluators.addAll(Arrays.asList(StringUtils.delimitedListToStringArray(evaluator, "|")));
+			} else {
+				handlerEvaluators.add(evaluator);
+			}
+
+			for (String eval : handlerEvaluators) {
+				if (eval.contains("=")) {
+					String[] evalKeyVal = StringUtils.delimitedListToStringArray(eval, "=");
+					String evalKeyRight = evalKeyVal[1];
+
+					String[] expressionKeyVal = StringUtils.delimitedListToStringArray(evalKeyRight, "<>");
+					String expression = null;
+					if (expressionKeyVal.length > 1) {
+						expression = expressionKeyVal[0].trim();
+						evalKeyRight = evalKeyRight.replaceFirst(expression + "<>", "").trim();
+					}
+					if (registry.getEvaluatorExpression(expression).isValueMapped(evalKeyVal[0], evalKeyRight,
+							auditEntry)) {
+						matchMap.add(evaluatorEntry.getKey(), 1);
+					}
+				} else if (PeltasEntryHandler.getMappedSingleValueProperty(eval, auditEntry) != null) {
+					matchMap.add(evaluatorEntry.getKey(), 1);
+				}
+			}
+
+			highestEvaluatorRank.put(evaluatorEntry.getKey(), handlerEvaluators.size());
+		}
+
+		String bestMatchEvaluatorKey = null;
+		int bestMatchSize = 0;
+		for (Entry<String, List<Integer>> entry : matchMap.entrySet()) {
+			if (entry.getValue().size() > bestMatchSize) {
+				bestMatchSize = entry.getValue().size();
+				bestMatchEvaluatorKey = entry.getKey();
+			}
+		}
+
+		if (bestMatchEvaluatorKey != null && highestEvaluatorRank.get(bestMatchEvaluatorKey) == bestMatchSize) {
+			return bestMatchEvaluatorKey;
+		}
+		return null;
+	}
+
+	private static EvaluatorExpressionRegistry registry() {
+		EvaluatorExpressionRegistry registry = new EvaluatorExpressionRegistry(new EqualsExpressionEvaluator());
+		registry.registerEvaluator(new ContainsExpressionEvaluator());
+		return registry;
+	}
+
+	private static PeltasEntry entry(String... keyValues) {
+		ImmutableMap.Builder<String, Object> values = ImmutableMap.builder();
+		for (int i = 0; i < keyValues.length; i += 2) {
+			values.put(keyValues[i], keyValues[i + 1]);
+		}
+
+		PeltasEntry entry = new PeltasEntry();
+		entry.setValues(values.build());
+		return entry;
+	}
+}
@@ -0,0 +1,72 @@
+/**
+ * Copyright 2019 Pleo Soft d.o.o. (pleosoft.com)
+
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.peltas.core.expression;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+import com.google.common.collect.ImmutableMap;
+
+import io.peltas.core.PeltasEntry;
+
+public class PrefixStringResolverTest {
+
+	private static final String ASPECTS = "/alfresco-workspace/transaction/aspects";
+
+	@Test
+	public void containsPrefixString() {
+		PeltasEntry entry = entry();
+
+		assertThat(new ContainsPrefixStringExpressionEvaluator().isValueMapped(ASPECTS, "cm:titled", entry)).isTrue();
+		assertThat(new ContainsPrefixStringExpressionEvaluator().isValueMapped(ASPECTS, "cm:versionable", entry))
+				.isFalse();
+		assertThat(new ContainsNotPrefixStringExpressionEvaluator().isValueMapped(ASPECTS, "cm:versionable", entry))
+				.isTrue();
+		assertThat(new ContainsNotPrefixStringExpressionEvaluator().isValueMapped(ASPECTS, "sys:referenceable",
+				entry)).isFalse();
+	}
+
+	@Test
+	public void resolvedOncePerEntry() {
+		PeltasEntry entry = entry();
+
+		Set<String> prefixStrings = PrefixStringResolver.getPrefixStrings(ASPECTS, entry);
+		assertThat(prefixStrings).containsExactlyInAnyOrder("cm:titled", "sys:referenceable");
+		assertThat(PrefixStringResolver.getPrefixStrings(ASPECTS, entry)).isSameAs(prefixStrings);
+
+		entry.setValues(new HashMap<>());
+		assertThat(PrefixStringResolver.getPrefixStrings(ASPECTS, entry)).isEmpty();
+	}
+
+	private static PeltasEntry entry() {
+		Map<String, Object> titled = ImmutableMap.of("prefixString", "cm", "localName", "titled");
+		Map<String, Object> referenceable = ImmutableMap.of("prefixString", "sys", "localName", "referenceable");
+
+		Map<String, Object> values = new HashMap<>();
+		values.put(ASPECTS, Arrays.asList(titled, referenceable));
+
+		PeltasEntry entry = new PeltasEntry();
+		entry.setValues(values);
+		return entry;
+	}
+}
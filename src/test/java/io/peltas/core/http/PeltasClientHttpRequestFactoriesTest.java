@@ -0,0 +1,130 @@
+/**
+ * Copyright 2019 Pleo Soft d.o.o. (pleosoft.com)
+
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.peltas.core.http;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.zip.GZIPOutputStream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestTemplate;
+
+import com.sun.net.httpserver.HttpServer;
+
+import io.peltas.boot.PeltasProperties;
+
+public class PeltasClientHttpRequestFactoriesTest {
+
+	private static final String BODY = "{\"transactions\":[]}";
+
+	private HttpServer server;
+	private final List<Integer> remotePorts = new CopyOnWriteArrayList<>();
+	private final List<String> acceptEncodings = new CopyOnWriteArrayList<>();
+	private ClientHttpRequestFactory requestFactory;
+
+	@BeforeEach
+	public void setUp() throws IOException {
+		server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+		server.createContext("/gzip", exchange -> {
+			remotePorts.add(exchange.getRemoteAddress().getPort());
+			acceptEncodings.add(exchange.getRequestHeaders().getFirst("Accept-Encoding"));
+
+			ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+			try (GZIPOutputStream gzip = new GZIPOutputStream(bytes)) {
+				gzip.write(BODY.getBytes(StandardCharsets.UTF_8));
+			}
+			exchange.getResponseHeaders().add("Content-Type", "application/json");
+			exchange.getResponseHeaders().add("Content-Encoding", "gzip");
+			exchange.sendResponseHeaders(200, bytes.size());
+			try (OutputStream out = exchange.getResponseBody()) {
+				bytes.writeTo(out);
+			}
+		});
+		server.createContext("/slow", exchange -> {
+			try {
+				Thread.sleep(1000);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			exchange.sendResponseHeaders(200, -1);
+			exchange.close();
+		});
+		server.start();
+	}
+
+	@AfterEach
+	public void tearDown() throws Exception {
+		if (requestFactory instanceof DisposableBean) {
+			((DisposableBean) requestFactory).destroy();
+		}
+		server.stop(0);
+	}
+
+	@Test
+	public void pooledConnectionIsReusedAndResponseDecompressed() {
+		requestFactory = PeltasClientHttpRequestFactories.create(new PeltasProperties.Http());
+		assertThat(requestFactory).isInstanceOf(HttpComponentsClientHttpRequestFactory.class);
+
+		RestTemplate restTemplate = new RestTemplate(requestFactory);
+		for (int i = 0; i < 3; i++) {
+			assertThat(restTemplate.getForObject(url("/gzip"), String.class)).isEqualTo(BODY);
+		}
+
+		assertThat(remotePorts).hasSize(3);
+		assertThat(remotePorts).containsOnly(remotePorts.get(0));
+		assertThat(acceptEncodings.get(0)).contains("gzip");
+	}
+
+	@Test
+	public void readTimeoutIsApplied() {
+		PeltasProperties.Http http = new PeltasProperties.Http();
+		http.setReadTimeout(100);
+		requestFactory = PeltasClientHttpRequestFactories.create(http);
+
+		RestTemplate restTemplate = new RestTemplate(requestFactory);
+		assertThatThrownBy(() -> restTemplate.getForObject(url("/slow"), String.class))
+				.isInstanceOf(ResourceAccessException.class);
+	}
+
+	@Test
+	public void notPooledFallsBackToJdkConnection() {
+		PeltasProperties.Http http = new PeltasProperties.Http();
+		http.setPooled(false);
+		requestFactory = PeltasClientHttpRequestFactories.create(http);
+
+		assertThat(requestFactory).isInstanceOf(SimpleClientHttpRequestFactory.class);
+	}
+
+	private String url(String path) {
+		return "http://127.0.0.1:" + server.getAddress().getPort() + path;
+	}
+}
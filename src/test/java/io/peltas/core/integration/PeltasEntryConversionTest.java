@@ -0,0 +1,106 @@
+/**
+ * Copyright 2019 Pleo Soft d.o.o. (pleosoft.com)
+
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.peltas.core.integration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.core.convert.converter.Converter;
+
+import io.peltas.core.PeltasEntry;
+import io.peltas.core.expression.PeltasExpressionProperty;
+import io.peltas.core.expression.PeltasExpressionPropertyMapper;
+import io.peltas.core.expression.PeltasHandlerProperties;
+
+public class PeltasEntryConversionTest {
+
+	private final PeltasFormatUtil peltasFormatUtil = new PeltasFormatUtil();
+
+	@Test
+	public void assignableValuesAreNotConverted() {
+		String name = new String("doc.txt");
+		Map<String, Object> builder = handle(Collections.emptyList(), name, property(String.class, null));
+
+		assertThat(builder.get("value")).isSameAs(name);
+	}
+
+	@Test
+	public void configuredConvertersStillApply() {
+		Converter<String, String> upperCase = new Converter<String, String>() {
+			@Override
+			public String convert(String source) {
+				return source.toUpperCase();
+			}
+		};
+
+		Map<String, Object> builder = handle(Arrays.asList(upperCase), "doc.txt", property(String.class, null));
+		assertThat(builder.get("value")).isEqualTo("DOC.TXT");
+	}
+
+	@Test
+	public void convertedWithTheResolvedConverter() {
+		assertThat(handle(Collections.emptyList(), "42", property(Integer.class, null)).get("value")).isEqualTo(42);
+		assertThat(handle(Collections.emptyList(), 42L, property(String.class, null)).get("value")).isEqualTo("42");
+	}
+
+	@Test
+	public void formatAvailableToPlainConverters() {
+		Converter<String, Long> formatLength = new Converter<String, Long>() {
+			@Override
+			public Long convert(String source) {
+				return (long) peltasFormatUtil.getCurrentFormat().length();
+			}
+		};
+
+		Map<String, Object> builder = handle(Arrays.asList(formatLength), "doc.txt", property(Long.class, "yyyy"));
+		assertThat(builder.get("value")).isEqualTo(4L);
+		assertThat(peltasFormatUtil.getCurrentFormat()).isNull();
+	}
+
+	private Map<String, Object> handle(List<Converter<?, ?>> converters, Object value,
+			PeltasExpressionProperty property) {
+		Map<String, PeltasExpressionProperty> properties = new LinkedHashMap<>();
+		properties.put("value", property);
+		PeltasExpressionPropertyMapper mapper = new PeltasExpressionPropertyMapper();
+		mapper.setProperty(properties);
+		PeltasHandlerProperties config = new PeltasHandlerProperties();
+		config.setHandlerName("conversion");
+		config.setMapper(mapper);
+
+		PeltasEntry entry = new PeltasEntry();
+		entry.setValues(Collections.singletonMap("/value", value));
+
+		PeltasEntryHandler handler = new PeltasEntryHandler(converters, peltasFormatUtil);
+		// the second entry goes through the already bound converter
+		handler.handle(entry, config);
+		return handler.handle(entry, config).getBuilder();
+	}
+
+	private static PeltasExpressionProperty property(Class<?> type, String format) {
+		PeltasExpressionProperty property = new PeltasExpressionProperty();
+		property.setData(Collections.singletonList("/value"));
+		property.setType(type);
+		property.setFormat(format);
+		return property;
+	}
+}
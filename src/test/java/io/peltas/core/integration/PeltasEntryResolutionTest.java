@@ -0,0 +1,71 @@
+/**
+ * Copyright 2019 Pleo Soft d.o.o. (pleosoft.com)
+
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.peltas.core.integration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import com.google.common.collect.ImmutableMap;
+
+import io.peltas.core.PeltasEntry;
+
+public class PeltasEntryResolutionTest {
+
+	private static final String ASPECTS = "/alfresco-access/transaction/aspects/add";
+	private static final String PROPERTIES = "/alfresco-access/transaction/properties";
+
+	@Test
+	public void multiValueResolvedOnce() {
+		PeltasEntry entry = entry();
+
+		List<Object> aspects = PeltasEntryHandler.getMappedMultiValueProperty(ASPECTS, entry);
+		assertThat(aspects).containsExactly("cm:titled", "cm:versionable");
+		assertThat(PeltasEntryHandler.getMappedMultiValueProperty(ASPECTS, entry)).isSameAs(aspects);
+		assertThatThrownBy(() -> aspects.add("cm:auditable")).isInstanceOf(UnsupportedOperationException.class);
+	}
+
+	@Test
+	public void singleValueSharedWithMapping() {
+		PeltasEntry entry = entry();
+
+		assertThat(PeltasEntryHandler.getMappedSingleValueProperty(PROPERTIES + "@cm:name", entry))
+				.isEqualTo("doc.txt");
+		assertThat(PeltasEntryHandler.getMappedSingleValueProperty(PROPERTIES + "@cm:title", entry)).isNull();
+		assertThat(PeltasEntryHandler.getMappedSingleValueProperty("missing", entry)).isNull();
+
+		// a new values map is resolved again
+		entry.setValues(ImmutableMap.of(PROPERTIES, ImmutableMap.of("cm:name", "renamed.txt")));
+		assertThat(PeltasEntryHandler.getMappedSingleValueProperty(PROPERTIES + "@cm:name", entry))
+				.isEqualTo("renamed.txt");
+	}
+
+	private static PeltasEntry entry() {
+		Map<String, Object> values = new HashMap<>();
+		values.put(ASPECTS, "[cm:titled, cm:versionable]");
+		values.put(PROPERTIES, ImmutableMap.of("cm:name", "doc.txt"));
+
+		PeltasEntry entry = new PeltasEntry();
+		entry.setValues(values);
+		return entry;
+	}
+}
@@ -0,0 +1,70 @@
+/**
+ * Copyright 2019 Pleo Soft d.o.o. (pleosoft.com)
+
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.peltas.core.integration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+
+import com.google.common.collect.ImmutableMap;
+
+import io.peltas.core.PeltasEntry;
+import io.peltas.core.expression.PeltasExpressionProperty;
+import io.peltas.core.integration.PeltasMappingPlan.PropertyPlan;
+
+public class PeltasMappingPlanTest {
+
+	@Test
+	public void referencesAreOrderedByDependency() {
+		Map<String, PeltasExpressionProperty> properties = new LinkedHashMap<>();
+		properties.put("last", property("prop:middle"));
+		properties.put("middle", property("prop:first@key"));
+		properties.put("first", property("/values"));
+		properties.put("literal", property(" 'text ' "));
+
+		PeltasMappingPlan plan = new PeltasMappingPlan(properties);
+
+		assertThat(plan.getProperties().stream().map(PropertyPlan::getKey).collect(Collectors.toList()))
+				.containsExactly("last", "middle", "first", "literal");
+		assertThat(plan.getReferences().stream().map(PropertyPlan::getKey).collect(Collectors.toList()))
+				.containsExactly("middle", "last");
+
+		PeltasEntry entry = new PeltasEntry();
+		entry.setValues(ImmutableMap.of("/values", ImmutableMap.of("key", "value")));
+
+		PropertyPlan literal = plan.getProperties().get(3);
+		assertThat(literal.getSources()[0].getValue(entry, null)).isEqualTo("text");
+
+		PropertyPlan first = plan.getProperties().get(2);
+		Object values = first.getSources()[0].getValue(entry, null);
+		assertThat(values).isEqualTo(ImmutableMap.of("key", "value"));
+
+		PropertyPlan middle = plan.getReferences().get(0);
+		assertThat(middle.getSources()[0].getValue(entry, ImmutableMap.of("first", values))).isEqualTo("value");
+	}
+
+	private static PeltasExpressionProperty property(String... data) {
+		PeltasExpressionProperty property = new PeltasExpressionProperty();
+		property.setData(Arrays.asList(data));
+		return property;
+	}
+}
@@ -0,0 +1,117 @@
+/**
+ * Copyright 2019 Pleo Soft d.o.o. (pleosoft.com)
+
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.peltas.core.metrics;
+
+import static io.peltas.core.repository.jdbc.PeltasJdbcWriterFixtures.sql;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withServerError;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withSuccess;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.core.io.Resource;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.test.web.client.MockRestServiceServer;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.RestTemplate;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.peltas.core.batch.PeltasDataHolder;
+import io.peltas.core.http.MetricsInterceptor;
+import io.peltas.core.repository.jdbc.PeltasJdbcWriter;
+import io.peltas.core.repository.jdbc.PeltasJdbcWriterFixtures;
+
+public class PeltasMetricsTest {
+
+	private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+	private final PeltasMetrics metrics = new PeltasMetrics(registry);
+
+	@Test
+	public void httpRequestsPerEndpoint() {
+		RestTemplate restTemplate = new RestTemplate();
+		restTemplate.getInterceptors().add(new MetricsInterceptor(metrics));
+		MockRestServiceServer server = MockRestServiceServer.bindTo(restTemplate).build();
+		server.expect(requestTo("http://solr/alfresco/service/api/solr/nodes"))
+				.andRespond(withSuccess("{}", MediaType.APPLICATION_JSON));
+		server.expect(requestTo("http://solr/alfresco/service/api/solr/metadata")).andRespond(withServerError());
+
+		restTemplate.getForObject("http://solr/alfresco/service/api/solr/nodes", String.class);
+		try {
+			restTemplate.getForObject("http://solr/alfresco/service/api/solr/metadata", String.class);
+		} catch (HttpServerErrorException e) {
+			// recorded with the 500 status
+		}
+
+		assertThat(registry.get(PeltasMetrics.HTTP_REQUESTS).tag("endpoint", "nodes").tag("status", "200").timer()
+				.count()).isEqualTo(1);
+		assertThat(registry.get(PeltasMetrics.HTTP_REQUESTS).tag("endpoint", "metadata").tag("status", "500")
+				.timer().count()).isEqualTo(1);
+	}
+
+	@Test
+	public void executionsAndRows() throws Exception {
+		NamedParameterJdbcTemplate jdbcTemplate = Mockito.mock(NamedParameterJdbcTemplate.class);
+		Mockito.when(jdbcTemplate.queryForMap(Mockito.anyString(), Mockito.any(MapSqlParameterSource.class)))
+				.thenReturn(Collections.singletonMap("id", 7));
+		Mockito.when(jdbcTemplate.batchUpdate(Mockito.anyString(), Mockito.any(MapSqlParameterSource[].class)))
+				.thenReturn(new int[] { 1, -2 });
+
+		PeltasJdbcWriter writer = new PeltasJdbcWriter(jdbcTemplate,
+				new Resource[] { sql("bi_case.sql", "SELECT id FROM bi_case WHERE name = :name"),
+						sql("bi_audit.sql", "INSERT INTO bi_audit (audit_id) VALUES (:audit.id)") },
+				true, Collections.emptySet());
+		writer.setMetrics(metrics);
+		writer.write(Arrays.asList(item("1"), item("2")));
+
+		assertThat(registry.get(PeltasMetrics.EXECUTION).tag("execution", "bi_case").tag("batched", "false").timer()
+				.count()).isEqualTo(2);
+		assertThat(registry.get(PeltasMetrics.EXECUTION).tag("execution", "bi_audit").tag("batched", "true").timer()
+				.count()).isEqualTo(1);
+		assertThat(registry.get(PeltasMetrics.EXECUTION_ROWS).tag("execution", "bi_case").counter().count())
+				.isEqualTo(2);
+		assertThat(registry.get(PeltasMetrics.EXECUTION_ROWS).tag("execution", "bi_audit").counter().count())
+				.isEqualTo(2);
+	}
+
+	@Test
+	public void evaluatorNoMatch() {
+		metrics.recordMatch("peltas", true, System.nanoTime());
+		metrics.recordMatch("peltas", false, System.nanoTime());
+		metrics.recordMatch("peltas", false, System.nanoTime());
+
+		assertThat(registry.get(PeltasMetrics.EVALUATOR_MATCH).tag("matched", "true").timer().count()).isEqualTo(1);
+		assertThat(registry.get(PeltasMetrics.EVALUATOR_NO_MATCH).tag("application", "peltas").counter().count())
+				.isEqualTo(2);
+	}
+
+	@Test
+	public void noopRecordsNothing() {
+		PeltasMetrics.NOOP.recordMapping("handler", System.nanoTime());
+		assertThat(PeltasMetrics.NOOP.getRegistry().find(PeltasMetrics.HANDLER_MAPPING).timers())
+				.allMatch(timer -> timer.count() == 0);
+	}
+
+	private static PeltasDataHolder item(String id) {
+		return PeltasJdbcWriterFixtures.item(id, "case-" + id, "bi_case", "bi_audit");
+	}
+}
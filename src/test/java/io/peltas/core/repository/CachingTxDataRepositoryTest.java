@@ -0,0 +1,98 @@
+/**
+ * Copyright 2019 Pleo Soft d.o.o. (pleosoft.com)
+
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.peltas.core.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import io.peltas.core.repository.jpa.PeltasTimestamp;
+
+public class CachingTxDataRepositoryTest {
+
+	private final CountingRepository delegate = new CountingRepository();
+	private final CachingTxDataRepository repository = new CachingTxDataRepository(delegate);
+
+	@AfterEach
+	public void clearSynchronization() {
+		if (TransactionSynchronizationManager.isSynchronizationActive()) {
+			TransactionSynchronizationManager.clearSynchronization();
+		}
+	}
+
+	@Test
+	public void readsTheDelegateOnce() {
+		assertThat(repository.readTx("app")).isNull();
+		assertThat(repository.readTx("app")).isNull();
+		assertThat(delegate.reads.get()).isEqualTo(1);
+
+		repository.writeTx(new PeltasTimestamp("app", "10;5___3", new Date()));
+		PeltasTimestamp checkpoint = repository.readTx("app");
+		assertThat(checkpoint.getRef()).isEqualTo("10;5___3");
+		assertThat(delegate.reads.get()).isEqualTo(1);
+
+		// callers get copies, changing one does not change the cached checkpoint
+		checkpoint.setRef("changed");
+		assertThat(repository.readTx("app").getRef()).isEqualTo("10;5___3");
+	}
+
+	@Test
+	public void cachesAfterCommitOnly() {
+		repository.writeTx(new PeltasTimestamp("app", "10;5___3", new Date()));
+
+		TransactionSynchronizationManager.initSynchronization();
+		repository.writeTx(new PeltasTimestamp("app", "11;6___4", new Date()));
+		assertThat(repository.readTx("app").getRef()).isEqualTo("10;5___3");
+
+		for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+			synchronization.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK);
+		}
+		assertThat(repository.readTx("app").getRef()).isEqualTo("10;5___3");
+
+		repository.writeTx(new PeltasTimestamp("app", "12;7___5", new Date()));
+		for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+			synchronization.afterCommit();
+		}
+		assertThat(repository.readTx("app").getRef()).isEqualTo("12;7___5");
+	}
+
+	private static class CountingRepository implements TxDataRepository {
+
+		private final Map<String, PeltasTimestamp> rows = new HashMap<>();
+		private final AtomicInteger reads = new AtomicInteger();
+
+		@Override
+		public PeltasTimestamp writeTx(PeltasTimestamp ts) {
+			rows.put(ts.getApplicationName(), ts);
+			return ts;
+		}
+
+		@Override
+		public PeltasTimestamp readTx(String applicationName) {
+			reads.incrementAndGet();
+			return rows.get(applicationName);
+		}
+	}
+}
@@ -0,0 +1,61 @@
+/**
+ * Copyright 2019 Pleo Soft d.o.o. (pleosoft.com)
+
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.peltas.core.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Date;
+
+import org.junit.jupiter.api.Test;
+
+import io.peltas.core.repository.jpa.PeltasTimestamp;
+
+public class PeltasCheckpointTest {
+
+	@Test
+	public void migratesLegacyRef() {
+		PeltasCheckpoint checkpoint = PeltasCheckpoint.of(new PeltasTimestamp("app", "1234;5678___42", new Date()));
+
+		assertThat(checkpoint.getLastTxnId()).isEqualTo(1234L);
+		assertThat(checkpoint.getLastNodeId()).isEqualTo(5678L);
+		assertThat(checkpoint.getProcessedCount()).isEqualTo(42L);
+		assertThat(checkpoint.getWindowSize()).isNull();
+	}
+
+	@Test
+	public void readsAndWritesColumns() {
+		PeltasTimestamp timestamp = new PeltasTimestamp("app", "1234;5678___42", new Date());
+		new PeltasCheckpoint(1300L, 6000L, 50L, 200L).applyTo(timestamp);
+
+		PeltasCheckpoint checkpoint = PeltasCheckpoint.of(timestamp);
+		assertThat(checkpoint.getLastTxnId()).isEqualTo(1300L);
+		assertThat(checkpoint.getLastNodeId()).isEqualTo(6000L);
+		assertThat(checkpoint.getProcessedCount()).isEqualTo(50L);
+		assertThat(checkpoint.getWindowSize()).isEqualTo(200L);
+	}
+
+	@Test
+	public void entryIdWithoutNode() {
+		PeltasCheckpoint checkpoint = PeltasCheckpoint.fromEntryId("audit-entry-7", 3, null);
+		assertThat(checkpoint.getLastTxnId()).isNull();
+		assertThat(checkpoint.getLastNodeId()).isNull();
+		assertThat(checkpoint.getProcessedCount()).isEqualTo(3L);
+
+		assertThat(PeltasCheckpoint.of(new PeltasTimestamp("app", "1___0", new Date())).getLastTxnId()).isNull();
+		assertThat(PeltasCheckpoint.of(null)).isNull();
+	}
+}
@@ -0,0 +1,127 @@
+/**
+ * Copyright 2019 Pleo Soft d.o.o. (pleosoft.com)
+
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.peltas.core.repository.jdbc;
+
+import static io.peltas.core.repository.jdbc.PeltasJdbcWriterFixtures.sql;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.Mockito;
+import org.springframework.core.io.Resource;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+import io.peltas.core.batch.PeltasDataHolder;
+
+public class PeltasJdbcWriterBatchTest {
+
+	private static final String INSERT_CASE = "INSERT INTO bi_case (name) VALUES (:name) RETURNING id";
+	private static final String INSERT_ACTION = "INSERT INTO bi_case_action (case_id) VALUES (:bi_case.id)";
+	private static final String INSERT_AUDIT = "INSERT INTO bi_audit (audit_id) VALUES (:audit.id)";
+
+	private final NamedParameterJdbcTemplate jdbcTemplate = Mockito.mock(NamedParameterJdbcTemplate.class);
+
+	@Test
+	public void batchesExecutionsPerChunk() throws Exception {
+		Mockito.when(jdbcTemplate.queryForMap(Mockito.eq(INSERT_CASE), Mockito.any(MapSqlParameterSource.class)))
+				.thenReturn(Collections.singletonMap("id", 7));
+
+		PeltasJdbcWriter writer = new PeltasJdbcWriter(jdbcTemplate, resources(), true, Collections.emptySet());
+		assertThat(writer.isBatched("bi_case")).isFalse();
+		assertThat(writer.isBatched("bi_case_action")).isTrue();
+		assertThat(writer.isBatched("bi_audit")).isTrue();
+
+		writer.write(Arrays.asList(item("1", "first"), item("2", "second")));
+
+		Mockito.verify(jdbcTemplate, Mockito.times(2)).queryForMap(Mockito.eq(INSERT_CASE),
+				Mockito.any(MapSqlParameterSource.class));
+
+		ArgumentCaptor<MapSqlParameterSource[]> actions = ArgumentCaptor.forClass(MapSqlParameterSource[].class);
+		Mockito.verify(jdbcTemplate).batchUpdate(Mockito.eq(INSERT_ACTION), actions.capture());
+		assertThat(actions.getValue()).hasSize(2);
+		assertThat(actions.getValue()[0].getValue("bi_case.id")).isEqualTo(7);
+		assertThat(actions.getValue()[1].getValue("audit.id")).isEqualTo("2");
+
+		ArgumentCaptor<MapSqlParameterSource[]> audits = ArgumentCaptor.forClass(MapSqlParameterSource[].class);
+		Mockito.verify(jdbcTemplate).batchUpdate(Mockito.eq(INSERT_AUDIT), audits.capture());
+		assertThat(audits.getValue()).hasSize(2);
+	}
+
+	@Test
+	public void nonBatchedExecutions() throws Exception {
+		Mockito.when(jdbcTemplate.queryForMap(Mockito.anyString(), Mockito.any(MapSqlParameterSource.class)))
+				.thenReturn(Collections.singletonMap("id", 7));
+
+		PeltasJdbcWriter writer = new PeltasJdbcWriter(jdbcTemplate, resources(), true,
+				Collections.singleton("bi_audit"));
+		assertThat(writer.isBatched("bi_audit")).isFalse();
+
+		writer.write(Arrays.asList(item("1", "first")));
+		Mockito.verify(jdbcTemplate).queryForMap(Mockito.eq(INSERT_AUDIT), Mockito.any(MapSqlParameterSource.class));
+		Mockito.verify(jdbcTemplate).batchUpdate(Mockito.eq(INSERT_ACTION), Mockito.any(MapSqlParameterSource[].class));
+	}
+
+	@Test
+	public void batchesAreSentBeforeTheNextStatementOfTheItem() throws Exception {
+		Mockito.when(jdbcTemplate.queryForMap(Mockito.anyString(), Mockito.any(MapSqlParameterSource.class)))
+				.thenReturn(Collections.singletonMap("id", 7));
+
+		PeltasJdbcWriter writer = new PeltasJdbcWriter(jdbcTemplate, resources(), false, Collections.emptySet());
+		writer.setBatch(true, Collections.emptySet());
+		assertThat(writer.isBatch()).isTrue();
+
+		writer.write(Arrays.asList(PeltasJdbcWriterFixtures.item("1", "first", "bi_audit", "bi_case"),
+				PeltasJdbcWriterFixtures.item("2", "second", "bi_audit", "bi_case")));
+
+		InOrder inOrder = Mockito.inOrder(jdbcTemplate);
+		inOrder.verify(jdbcTemplate).batchUpdate(Mockito.eq(INSERT_AUDIT),
+				Mockito.argThat((MapSqlParameterSource[] batch) -> batch.length == 1));
+		inOrder.verify(jdbcTemplate).queryForMap(Mockito.eq(INSERT_CASE), Mockito.any(MapSqlParameterSource.class));
+		inOrder.verify(jdbcTemplate).batchUpdate(Mockito.eq(INSERT_AUDIT),
+				Mockito.argThat((MapSqlParameterSource[] batch) -> batch.length == 1));
+		inOrder.verify(jdbcTemplate).queryForMap(Mockito.eq(INSERT_CASE), Mockito.any(MapSqlParameterSource.class));
+		inOrder.verifyNoMoreInteractions();
+	}
+
+	@Test
+	public void batchDisabledByDefault() throws Exception {
+		Mockito.when(jdbcTemplate.queryForMap(Mockito.anyString(), Mockito.any(MapSqlParameterSource.class)))
+				.thenReturn(Collections.singletonMap("id", 7));
+
+		PeltasJdbcWriter writer = new PeltasJdbcWriter(jdbcTemplate, resources());
+		writer.write(Arrays.asList(item("1", "first")));
+
+		Mockito.verify(jdbcTemplate, Mockito.times(3)).queryForMap(Mockito.anyString(),
+				Mockito.any(MapSqlParameterSource.class));
+		Mockito.verify(jdbcTemplate, Mockito.never()).batchUpdate(Mockito.anyString(),
+				Mockito.any(MapSqlParameterSource[].class));
+	}
+
+	private static Resource[] resources() {
+		return new Resource[] { sql("bi_case.sql", INSERT_CASE), sql("bi_case_action.sql", INSERT_ACTION),
+				sql("bi_audit.sql", INSERT_AUDIT) };
+	}
+
+	private static PeltasDataHolder item(String id, String name) {
+		return PeltasJdbcWriterFixtures.item(id, name, "bi_case", "bi_case_action", "bi_audit");
+	}
+}
@@ -0,0 +1,58 @@
+/**
+ * Copyright 2019 Pleo Soft d.o.o. (pleosoft.com)
+
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.peltas.core.repository.jdbc;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.Resource;
+
+import io.peltas.core.PeltasEntry;
+import io.peltas.core.batch.PeltasDataHolder;
+import io.peltas.core.expression.PeltasHandlerProperties;
+import io.peltas.core.expression.Pipeline;
+
+public final class PeltasJdbcWriterFixtures {
+
+	private PeltasJdbcWriterFixtures() {
+	}
+
+	public static Resource sql(String filename, String sql) {
+		return new ByteArrayResource(sql.getBytes()) {
+			@Override
+			public String getFilename() {
+				return filename;
+			}
+		};
+	}
+
+	public static PeltasDataHolder item(String id, String name, String... executions) {
+		PeltasEntry entry = new PeltasEntry();
+		entry.setId(id);
+
+		Pipeline pipeline = new Pipeline();
+		pipeline.setExecutions(Arrays.asList(executions));
+		PeltasHandlerProperties config = new PeltasHandlerProperties();
+		config.setPipeline(pipeline);
+
+		Map<String, Object> builder = new HashMap<>();
+		builder.put("name", name);
+		return new PeltasDataHolder(entry, new HashMap<>(), builder, config);
+	}
+}
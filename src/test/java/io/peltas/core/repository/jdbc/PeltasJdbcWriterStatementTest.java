@@ -0,0 +1,163 @@
+/**
+ * Copyright 2019 Pleo Soft d.o.o. (pleosoft.com)
+
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.peltas.core.repository.jdbc;
+
+import static io.peltas.core.repository.jdbc.PeltasJdbcWriterFixtures.sql;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.lang.reflect.Proxy;
+import java.lang.reflect.InvocationTargetException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.Resource;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import io.peltas.core.PeltasException;
+import io.peltas.core.batch.PeltasDataHolder;
+import io.peltas.core.expression.PeltasHandlerProperties;
+import io.peltas.core.expression.Pipeline;
+import io.peltas.core.expression.PipelineCollection;
+
+public class PeltasJdbcWriterStatementTest {
+
+	private static final String SELECT_CASE = "SELECT id FROM bi_case WHERE name = :name";
+	// H2 answers upper case column labels
+	private static final String INSERT_ACTION = "INSERT INTO bi_action (case_id, audit_id) "
+			+ "VALUES (:bi_case.ID, :audit.id)";
+
+	private final AtomicInteger prepared = new AtomicInteger();
+
+	private EmbeddedDatabase database;
+	private NamedParameterJdbcTemplate jdbcTemplate;
+	private TransactionTemplate transactionTemplate;
+
+	@BeforeEach
+	public void setUp() {
+		database = new EmbeddedDatabaseBuilder().setType(EmbeddedDatabaseType.H2).generateUniqueName(true).build();
+		DelegatingDataSource dataSource = new DelegatingDataSource(database) {
+			@Override
+			public Connection getConnection() throws SQLException {
+				return countPrepared(super.getConnection());
+			}
+		};
+
+		jdbcTemplate = new NamedParameterJdbcTemplate(dataSource);
+		jdbcTemplate.getJdbcOperations().execute("CREATE TABLE bi_case (id INT PRIMARY KEY, name VARCHAR(20))");
+		jdbcTemplate.getJdbcOperations().execute("CREATE TABLE bi_action (case_id INT, audit_id VARCHAR(20))");
+		jdbcTemplate.getJdbcOperations().execute("INSERT INTO bi_case VALUES (1, 'first'), (2, 'second')");
+		transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+	}
+
+	@AfterEach
+	public void tearDown() {
+		database.shutdown();
+	}
+
+	@Test
+	public void statementPreparedOncePerTransaction() throws Exception {
+		PeltasJdbcWriter writer = new PeltasJdbcWriter(jdbcTemplate, resources(), true, Collections.emptySet());
+		prepared.set(0);
+
+		transactionTemplate.execute(status -> {
+			try {
+				writer.write(Arrays.asList(item("1", "first"), item("2", "second"), item("3", "first")));
+			} catch (Exception e) {
+				throw new IllegalStateException(e);
+			}
+			return null;
+		});
+
+		// the lookup once for the chunk, the batched insert once
+		assertThat(prepared.get()).isEqualTo(2);
+		assertThat(jdbcTemplate.getJdbcOperations()
+				.queryForList("SELECT case_id FROM bi_action ORDER BY audit_id", Integer.class))
+						.containsExactly(1, 2, 1);
+
+		// outside of a transaction every execution prepares its statement
+		prepared.set(0);
+		writer.write(Arrays.asList(item("4", "second"), item("5", "second")));
+		assertThat(prepared.get()).isEqualTo(3);
+	}
+
+	@Test
+	public void expandedParameters() {
+		PeltasJdbcWriter writer = new PeltasJdbcWriter(jdbcTemplate,
+				new Resource[] { sql("bi_case.sql", "SELECT count(*) AS cases FROM bi_case WHERE name IN (:names)") });
+
+		MapSqlParameterSource parameters = new MapSqlParameterSource("names", Arrays.asList("first", "second"));
+		writer.itemExecution("bi_case", parameters, null);
+		assertThat(parameters.getValue("bi_case.CASES")).isEqualTo(2L);
+	}
+
+	@Test
+	public void missingExecutionFiles() {
+		PeltasJdbcWriter writer = new PeltasJdbcWriter(jdbcTemplate,
+				new Resource[] { sql("bi_case.sql", SELECT_CASE), sql("bi_action.sql", " ") });
+
+		PeltasHandlerProperties handlerOnly = new PeltasHandlerProperties();
+		handlerOnly.setHandlerName("bi_case");
+		writer.validateExecutions(Collections.singletonList(handlerOnly));
+
+		PipelineCollection collection = new PipelineCollection();
+		collection.setExecutions(Arrays.asList("bi_case", "bi_aspect"));
+		Pipeline pipeline = new Pipeline();
+		pipeline.setExecutions(Arrays.asList("bi_case", "bi_action"));
+		pipeline.setCollections(Collections.singletonMap("aspects", collection));
+		PeltasHandlerProperties handler = new PeltasHandlerProperties();
+		handler.setPipeline(pipeline);
+
+		assertThatThrownBy(() -> writer.validateExecutions(Arrays.asList(handlerOnly, handler)))
+				.isInstanceOf(PeltasException.class).hasMessageContaining("[bi_action, bi_aspect]");
+	}
+
+	private Connection countPrepared(Connection connection) {
+		return (Connection) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] { Connection.class },
+				(proxy, method, args) -> {
+					if (method.getName().equals("prepareStatement")) {
+						prepared.incrementAndGet();
+					}
+					try {
+						return method.invoke(connection, args);
+					} catch (InvocationTargetException e) {
+						throw e.getTargetException();
+					}
+				});
+	}
+
+	private static Resource[] resources() {
+		return new Resource[] { sql("bi_case.sql", SELECT_CASE), sql("bi_action.sql", INSERT_ACTION) };
+	}
+
+	private static PeltasDataHolder item(String id, String name) {
+		return PeltasJdbcWriterFixtures.item(id, name, "bi_case", "bi_action");
+	}
+}